@@ -0,0 +1,49 @@
+package com.example.wolfenstein.benchmarks;
+
+import com.example.wolfenstein.games.GameWorld;
+import com.example.wolfenstein.games.objects.BulletSystem;
+import com.example.wolfenstein.games.objects.Player;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steady stream of shots: every invocation fires a volley and advances all bullets one tick,
+ * with old bullets retiring into walls. Run with {@code -prof gc} to check that bullet ticks
+ * allocate nothing once the bullet arrays have grown.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BulletStreamBenchmark {
+
+    // Bullets fired per tick
+    @Param({"10", "100"})
+    public int volley;
+
+    private GameWorld world;
+    private final Random random = new Random(Scenarios.SEED);
+
+    @Setup(Level.Trial)
+    public void setup() {
+        world = Scenarios.worldWithEnemies(0, Scenarios.SEED);
+        CameraPose.LONG_VIEW.apply(world.getPlayer());
+    }
+
+    @Benchmark
+    public GameWorld fireAndUpdate() {
+        Player player = world.getPlayer();
+        BulletSystem bullets = world.getBullets();
+        for (int i = 0; i < volley; i++) {
+            double angle = random.nextDouble() * Math.PI * 2;
+            bullets.spawn(player.getPosX(), player.getPosY(), Math.cos(angle), Math.sin(angle), 0.2, 10.0,
+                    BulletSystem.OWNER_PLAYER);
+        }
+        world.updateBullets();
+        return world;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.wolfenstein.benchmarks;
+
+import com.example.wolfenstein.games.objects.Player;
+
+/**
+ * Scripted camera positions on the built-in map, shared by the rendering benchmarks.
+ */
+public enum CameraPose {
+    // Spawn point, facing the west wall at point blank range
+    START(1.5, 1.5, 180),
+    // Looking east down the top corridor
+    CORRIDOR(2.5, 1.5, 0),
+    // Looking east along the long bottom row, the deepest view on the map
+    LONG_VIEW(1.5, 19.5, 0),
+    // Diagonal view across the rooms
+    DIAGONAL(3.5, 3.5, 35);
+
+    private final double x;
+    private final double y;
+    private final double angleDegrees;
+
+    CameraPose(double x, double y, double angleDegrees) {
+        this.x = x;
+        this.y = y;
+        this.angleDegrees = angleDegrees;
+    }
+
+    public void apply(Player player) {
+        place(player, x, y, angleDegrees);
+    }
+
+    /**
+     * Puts the player at (x, y) facing {@code angleDegrees}, keeping the field of view. The plane
+     * keeps the handedness of the spawn pose, dir (-1, 0) with plane (0, 0.66).
+     */
+    static void place(Player player, double x, double y, double angleDegrees) {
+        double angle = Math.toRadians(angleDegrees);
+        double planeLength = Math.hypot(player.getPlaneX(), player.getPlaneY());
+        player.setPosX(x);
+        player.setPosY(y);
+        player.setDirX(Math.cos(angle));
+        player.setDirY(Math.sin(angle));
+        player.setPlaneX(Math.sin(angle) * planeLength);
+        player.setPlaneY(-Math.cos(angle) * planeLength);
+        player.savePreviousState();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.wolfenstein.benchmarks;
+
+import com.example.wolfenstein.games.GameWorld;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enemy AI tick for thousands of enemies on a large room arena, with the think phase run
+ * serially or across the common fork/join pool. At 60 ticks per second the budget is 16.6 ms.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EnemyAiBenchmark {
+
+    @Param({"1000", "10000"})
+    public int enemies;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private GameWorld world;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        world = Scenarios.worldWithEnemies(Scenarios.arena(256, Scenarios.SEED), enemies, Scenarios.SEED);
+        world.getEnemyAi().setParallel(parallel);
+    }
+
+    @Benchmark
+    public GameWorld updateEnemies() {
+        world.updateEnemies();
+        // Enemy shots are not simulated here, only collected
+        world.getBullets().clear();
+        return world;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.wolfenstein.benchmarks;
+
+import com.example.wolfenstein.games.objects.Map;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tile lookups on the built-in map at a fixed set of pseudo-random coordinates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MapBenchmark {
+    private static final int LOOKUPS = 4096;
+
+    private Map map;
+    private int[] xs;
+    private int[] ys;
+
+    @Setup
+    public void setup() {
+        map = new Map();
+        Random random = new Random(Scenarios.SEED);
+        xs = new int[LOOKUPS];
+        ys = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            xs[i] = random.nextInt(map.getWidth());
+            ys[i] = random.nextInt(map.getHeight());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int isWall() {
+        int walls = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (map.isWall(xs[i], ys[i])) walls++;
+        }
+        return walls;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int getTile() {
+        int sum = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            sum += map.getTile(xs[i], ys[i]);
+        }
+        return sum;
+    }
+}
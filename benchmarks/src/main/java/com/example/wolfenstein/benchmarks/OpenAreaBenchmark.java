@@ -0,0 +1,59 @@
+package com.example.wolfenstein.benchmarks;
+
+import com.example.wolfenstein.games.GameWorld;
+import com.example.wolfenstein.games.HeadlessRenderTarget;
+import com.example.wolfenstein.games.RenderSettings;
+import com.example.wolfenstein.games.Renderer;
+import com.example.wolfenstein.games.objects.BulletSystem;
+import com.example.wolfenstein.games.objects.EnemyStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wall raycast in open halls, where most slices are distant and short, with and without
+ * sampling mip levels of the wall textures.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OpenAreaBenchmark {
+    private static final int WIDTH = 1024;
+    private static final int HEIGHT = 768;
+
+    @Param({"32", "128"})
+    public int hallSize;
+
+    @Param({"true", "false"})
+    public boolean mipmapping;
+
+    private GameWorld world;
+    private final BulletSystem noBullets = new BulletSystem();
+    private final EnemyStore noEnemies = new EnemyStore();
+    private Renderer renderer;
+    private HeadlessRenderTarget target;
+
+    @Setup
+    public void setup() {
+        RenderSettings settings = new RenderSettings();
+        settings.setRaycastThreads(1);
+        settings.setMipmapping(mipmapping);
+        settings.setTemporalReuse(false);
+
+        world = new GameWorld(Scenarios.openHall(hallSize));
+        // Centre of the hall, looking along the diagonal towards the far corner
+        CameraPose.place(world.getPlayer(), hallSize / 2.0 + 0.5, hallSize / 2.0 + 0.5, 45);
+
+        renderer = new Renderer(WIDTH, HEIGHT, settings);
+        target = new HeadlessRenderTarget(WIDTH, HEIGHT);
+    }
+
+    @Benchmark
+    public int renderFrame() {
+        renderer.render(target, world.getPlayer(), world.getMap(), noBullets, noEnemies);
+        return target.getPixels()[0];
+    }
+}
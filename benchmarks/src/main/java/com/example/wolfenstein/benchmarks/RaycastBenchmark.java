@@ -0,0 +1,67 @@
+package com.example.wolfenstein.benchmarks;
+
+import com.example.wolfenstein.games.GameWorld;
+import com.example.wolfenstein.games.HeadlessRenderTarget;
+import com.example.wolfenstein.games.RenderSettings;
+import com.example.wolfenstein.games.Renderer;
+import com.example.wolfenstein.games.objects.BulletSystem;
+import com.example.wolfenstein.games.objects.EnemyStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full-frame wall raycast, without sprites, at several resolutions and camera poses. A scale
+ * below 1 casts at that fraction of the resolution and includes the upscale.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RaycastBenchmark {
+
+    @Param({"320x240", "1024x768", "1920x1080"})
+    public String resolution;
+
+    @Param({"START", "CORRIDOR", "LONG_VIEW", "DIAGONAL"})
+    public CameraPose pose;
+
+    // 0 uses every available core
+    @Param({"1", "0"})
+    public int threads;
+
+    @Param({"1.0", "0.5"})
+    public double scale;
+
+    private GameWorld world;
+    private final BulletSystem noBullets = new BulletSystem();
+    private final EnemyStore noEnemies = new EnemyStore();
+    private Renderer renderer;
+    private HeadlessRenderTarget target;
+
+    @Setup
+    public void setup() {
+        String[] size = resolution.split("x");
+        int width = Integer.parseInt(size[0]);
+        int height = Integer.parseInt(size[1]);
+
+        RenderSettings settings = new RenderSettings();
+        settings.setRaycastThreads(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+        settings.setResolutionScale(scale);
+        // The camera never moves here, so reuse would skip the very cast being measured
+        settings.setTemporalReuse(false);
+
+        world = new GameWorld();
+        pose.apply(world.getPlayer());
+        renderer = new Renderer(width, height, settings);
+        target = new HeadlessRenderTarget(width, height);
+    }
+
+    @Benchmark
+    public int renderFrame() {
+        renderer.render(target, world.getPlayer(), world.getMap(), noBullets, noEnemies);
+        return target.getPixels()[0];
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.wolfenstein.benchmarks;
+
+import com.example.wolfenstein.games.GameWorld;
+import com.example.wolfenstein.games.objects.BulletSystem;
+import com.example.wolfenstein.games.objects.ChunkedTileLayer;
+import com.example.wolfenstein.games.objects.EnemyStore;
+import com.example.wolfenstein.games.objects.Map;
+import com.example.wolfenstein.games.objects.Player;
+import com.example.wolfenstein.games.objects.RoomChunkGenerator;
+
+import java.util.Random;
+
+/**
+ * Reproducible benchmark workloads: scripted camera poses and entity layouts drawn from a
+ * fixed seed, so every run measures the same frames and ticks.
+ */
+final class Scenarios {
+    static final long SEED = 42L;
+
+    private Scenarios() {
+    }
+
+    /**
+     * Fresh world on the built-in level with exactly {@code count} enemies on random floor tiles.
+     */
+    static GameWorld worldWithEnemies(int count, long seed) {
+        return worldWithEnemies(new Map(), count, seed);
+    }
+
+    static GameWorld worldWithEnemies(Map map, int count, long seed) {
+        GameWorld world = new GameWorld(map);
+        EnemyStore enemies = world.getEnemies();
+        enemies.clear();
+
+        Random random = new Random(seed);
+        while (enemies.size() < count) {
+            int x = 1 + random.nextInt(map.getWidth() - 2);
+            int y = 1 + random.nextInt(map.getHeight() - 2);
+            if (!map.isSolid(x, y)) {
+                enemies.spawn(x + 0.5, y + 0.5);
+            }
+        }
+        return world;
+    }
+
+    /**
+     * Resident {@code size}-square arena of rooms joined by doors, as used for soak tests.
+     */
+    static Map arena(int size, long seed) {
+        ChunkedTileLayer rooms = new ChunkedTileLayer(size, size, new RoomChunkGenerator(seed), null, Long.MAX_VALUE);
+        int[][] layout = new int[size][size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                layout[y][x] = rooms.get(x, y);
+            }
+        }
+        return new Map(layout);
+    }
+
+    /**
+     * Empty {@code size}-square hall walled in with every wall texture in turn, with a pillar
+     * every eight tiles, so most wall slices are far away and only a few pixels tall.
+     */
+    static Map openHall(int size) {
+        int[][] layout = new int[size][size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                boolean border = x == 0 || y == 0 || x == size - 1 || y == size - 1;
+                boolean pillar = x % 8 == 4 && y % 8 == 4;
+                layout[y][x] = border || pillar ? 1 + (x + y) % 16 : 0;
+            }
+        }
+        return new Map(layout);
+    }
+
+    /**
+     * Adds {@code count} player bullets and {@code count} enemy bullets flying in random directions.
+     */
+    static void addBullets(GameWorld world, int count, long seed) {
+        Random random = new Random(seed);
+        Player player = world.getPlayer();
+        for (int i = 0; i < count; i++) {
+            double angle = random.nextDouble() * Math.PI * 2;
+            world.getBullets().spawn(player.getPosX(), player.getPosY(),
+                    Math.cos(angle), Math.sin(angle), 0.02, 10.0, BulletSystem.OWNER_PLAYER);
+
+            angle = random.nextDouble() * Math.PI * 2;
+            world.getBullets().spawn(player.getPosX() + Math.cos(angle) * 3, player.getPosY() + Math.sin(angle) * 3,
+                    -Math.cos(angle), -Math.sin(angle), 0.035, 8.0, BulletSystem.OWNER_ENEMY);
+        }
+    }
+}
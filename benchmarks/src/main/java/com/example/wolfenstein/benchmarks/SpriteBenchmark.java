@@ -0,0 +1,53 @@
+package com.example.wolfenstein.benchmarks;
+
+import com.example.wolfenstein.games.GameWorld;
+import com.example.wolfenstein.games.HeadlessRenderTarget;
+import com.example.wolfenstein.games.RenderSettings;
+import com.example.wolfenstein.games.Renderer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Frame cost with a growing number of enemy sprites scattered over the map. The camera stands
+ * still, as while shooting from cover, so with temporal reuse only the sprites are redrawn.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SpriteBenchmark {
+    private static final int WIDTH = 1024;
+    private static final int HEIGHT = 768;
+
+    @Param({"10", "100", "1000"})
+    public int enemies;
+
+    @Param({"LONG_VIEW", "DIAGONAL"})
+    public CameraPose pose;
+
+    @Param({"true", "false"})
+    public boolean temporalReuse;
+
+    private GameWorld world;
+    private Renderer renderer;
+    private HeadlessRenderTarget target;
+
+    @Setup
+    public void setup() {
+        world = Scenarios.worldWithEnemies(enemies, Scenarios.SEED);
+        pose.apply(world.getPlayer());
+        RenderSettings settings = new RenderSettings();
+        settings.setTemporalReuse(temporalReuse);
+        renderer = new Renderer(WIDTH, HEIGHT, settings);
+        target = new HeadlessRenderTarget(WIDTH, HEIGHT);
+    }
+
+    @Benchmark
+    public int renderFrame() {
+        renderer.render(target, world.getPlayer(), world.getMap(), world.getBullets(), world.getEnemies());
+        return target.getPixels()[0];
+    }
+}
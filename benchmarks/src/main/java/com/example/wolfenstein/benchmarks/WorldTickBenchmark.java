@@ -0,0 +1,55 @@
+package com.example.wolfenstein.benchmarks;
+
+import com.example.wolfenstein.games.GameWorld;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one simulation tick of each GameWorld update with scaled entity counts.
+ * <p>
+ * Every invocation runs {@value #TICKS} ticks on a world rebuilt from the same seed, because ticks
+ * kill enemies and retire bullets and would otherwise drift towards an empty world. The batch
+ * keeps the rebuild rare next to the ticks it measures; scores are per tick.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WorldTickBenchmark {
+    // Ticks per invocation, few enough that the world does not thin out noticeably
+    private static final int TICKS = 50;
+
+    // Number of enemies, and of player and of enemy bullets
+    @Param({"10", "100", "1000"})
+    public int entities;
+
+    private GameWorld world;
+
+    @Setup(Level.Invocation)
+    public void setup() {
+        world = Scenarios.worldWithEnemies(entities, Scenarios.SEED);
+        CameraPose.DIAGONAL.apply(world.getPlayer());
+        Scenarios.addBullets(world, entities, Scenarios.SEED);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public GameWorld updateEnemies() {
+        for (int i = 0; i < TICKS; i++) {
+            world.updateEnemies();
+        }
+        return world;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public GameWorld updateBullets() {
+        for (int i = 0; i < TICKS; i++) {
+            world.updateBullets();
+        }
+        return world;
+    }
+}
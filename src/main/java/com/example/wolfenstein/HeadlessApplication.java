@@ -0,0 +1,195 @@
+package com.example.wolfenstein;
+
+import com.example.wolfenstein.games.FrameEvent;
+import com.example.wolfenstein.games.FramePhase;
+import com.example.wolfenstein.games.FrameProfiler;
+import com.example.wolfenstein.games.GameWorld;
+import com.example.wolfenstein.games.HeadlessRenderTarget;
+import com.example.wolfenstein.games.InputRecording;
+import com.example.wolfenstein.games.RaycastStatsEvent;
+import com.example.wolfenstein.games.RenderSettings;
+import com.example.wolfenstein.games.Renderer;
+import com.example.wolfenstein.games.ResolutionController;
+import com.example.wolfenstein.games.objects.ChunkedTileLayer;
+import com.example.wolfenstein.games.objects.LevelFile;
+import com.example.wolfenstein.games.objects.Map;
+import com.example.wolfenstein.games.objects.Player;
+import com.example.wolfenstein.games.objects.RoomChunkGenerator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Runs the raycaster without a display: renders frames of a fresh world into an int[]
+ * framebuffer, prints the throughput and optionally dumps the last frame as a PNG.
+ * <p>
+ * Usage: {@code HeadlessApplication [--width=1024] [--height=768] [--frames=600] [--simulate] [--png=frame.png]
+ * [--level=level.wlvl | --arena=16384 [--chunk-budget-mb=16] [--chunk-dir=chunks]] [--profile[=timings.csv]]
+ * [--replay=session.wrec [--no-render]] [--scale=1.0] [--budget-ms=16.6] [--reuse]}
+ * <p>
+ * {@code --arena} streams a procedurally generated square arena in chunks instead of loading a level.
+ * {@code --profile} prints per-phase frame timings, and appends them to a CSV file if one is given.
+ * {@code --replay} runs one frame per tick of a session recorded with {@code -Dwolf.record} as fast
+ * as possible, then checks the world ends in the recorded state.
+ * {@code --scale} renders at a fraction of the resolution and upscales; {@code --budget-ms} lets a
+ * {@link ResolutionController} pick the scale to hold that frame time instead.
+ * {@code --reuse} lets frames copy the previous frame's walls while the camera stands still; it is
+ * on for {@code --simulate} and {@code --replay} runs only, otherwise every frame of the fixed
+ * camera would be a copy.
+ */
+public class HeadlessApplication {
+
+    public static void main(String[] args) throws IOException {
+        int width = 1024;
+        int height = 768;
+        int frames = 600;
+        boolean simulate = false;
+        Path png = null;
+        Path level = null;
+        int arena = 0;
+        long chunkBudgetMb = 16;
+        Path chunkDirectory = null;
+        boolean profile = false;
+        Path profileCsv = null;
+        Path replay = null;
+        boolean render = true;
+        double scale = 1.0;
+        double budgetMillis = 0;
+        boolean reuse = false;
+
+        for (String arg : args) {
+            if (arg.startsWith("--width=")) width = Integer.parseInt(arg.substring(8));
+            else if (arg.startsWith("--height=")) height = Integer.parseInt(arg.substring(9));
+            else if (arg.startsWith("--frames=")) frames = Integer.parseInt(arg.substring(9));
+            else if (arg.equals("--simulate")) simulate = true;
+            else if (arg.startsWith("--png=")) png = Path.of(arg.substring(6));
+            else if (arg.startsWith("--level=")) level = Path.of(arg.substring(8));
+            else if (arg.startsWith("--arena=")) arena = Integer.parseInt(arg.substring(8));
+            else if (arg.startsWith("--chunk-budget-mb=")) chunkBudgetMb = Long.parseLong(arg.substring(18));
+            else if (arg.startsWith("--chunk-dir=")) chunkDirectory = Path.of(arg.substring(12));
+            else if (arg.equals("--profile")) profile = true;
+            else if (arg.startsWith("--profile=")) {
+                profile = true;
+                profileCsv = Path.of(arg.substring(10));
+            }
+            else if (arg.startsWith("--replay=")) replay = Path.of(arg.substring(9));
+            else if (arg.equals("--no-render")) render = false;
+            else if (arg.startsWith("--scale=")) scale = Double.parseDouble(arg.substring(8));
+            else if (arg.startsWith("--budget-ms=")) budgetMillis = Double.parseDouble(arg.substring(12));
+            else if (arg.equals("--reuse")) reuse = true;
+            else throw new IllegalArgumentException("Unknown argument: " + arg);
+        }
+
+        long loadStart = System.nanoTime();
+        Map map;
+        if (arena > 0) {
+            ChunkedTileLayer layer = new ChunkedTileLayer(arena, arena, new RoomChunkGenerator(42), chunkDirectory,
+                    chunkBudgetMb << 20);
+            int start = RoomChunkGenerator.ROOM_SIZE / 2;
+            map = new Map(layer, start, start);
+        } else if (level != null) {
+            map = LevelFile.read(level);
+        } else {
+            map = new Map();
+        }
+        System.out.printf("Loaded %dx%d level in %.3f ms%n", map.getWidth(), map.getHeight(), (System.nanoTime() - loadStart) / 1e6);
+
+        GameWorld world;
+        InputRecording recording = null;
+        if (replay != null) {
+            recording = InputRecording.read(replay);
+            if (recording.getMapHash() != map.contentHash()) {
+                throw new IllegalArgumentException(replay + " was recorded on a different level");
+            }
+            Player player = new Player(map.getPlayerStartX(), map.getPlayerStartY());
+            world = new GameWorld(map, player, recording.getTickRate(), recording.getSeed());
+            frames = recording.getTickCount();
+            simulate = true;
+        } else {
+            world = new GameWorld(map);
+        }
+        RenderSettings settings = new RenderSettings();
+        settings.setResolutionScale(scale);
+        // A camera that never moves would otherwise only cast the first frame
+        settings.setTemporalReuse(settings.isTemporalReuse() && (reuse || simulate));
+        if (budgetMillis > 0) {
+            settings.setDynamicResolution(true);
+            settings.setFrameBudgetMillis(budgetMillis);
+        }
+        Renderer renderer = new Renderer(width, height, settings);
+        ResolutionController resolution = new ResolutionController(settings);
+        HeadlessRenderTarget target = new HeadlessRenderTarget(width, height);
+        FrameProfiler profiler = new FrameProfiler(profile, profileCsv);
+        world.setProfiler(profiler);
+        Runnable raycastStats = RaycastStatsEvent.register(renderer, world.getLineOfSight());
+
+        long start = System.nanoTime();
+        for (int i = 0; i < frames; i++) {
+            long frameStart = profiler.begin();
+            FrameEvent event = new FrameEvent();
+            event.begin();
+            if (simulate) {
+                world.tick(recording != null ? recording.getButtons(i) : 0);
+            }
+            if (render) {
+                long renderStart = System.nanoTime();
+                int wallLayerReuses = renderer.getWallLayerReuses();
+                long time = profiler.begin();
+                renderer.render(target, world.getPlayer(), world.getMap(), world.getBullets(), world.getEnemies());
+                profiler.lap(FramePhase.RENDER, time);
+                // Frames that copied the previous walls say nothing about casting at this scale
+                if (renderer.getWallLayerReuses() == wallLayerReuses) {
+                    resolution.onFrame(System.nanoTime() - renderStart);
+                }
+            }
+            profiler.lap(FramePhase.FRAME, frameStart);
+            if (event.shouldCommit()) {
+                event.ticks = simulate ? 1 : 0;
+                event.enemies = world.getEnemies().size();
+                event.bullets = world.getBullets().size();
+                event.spritesDrawn = renderer.getSpritesDrawn();
+                event.commit();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        RaycastStatsEvent.unregister(raycastStats);
+
+        if (render) {
+            System.out.printf("Rendered %d frames at %dx%d in %.3f s (%.1f fps, %.3f ms/frame)%n",
+                    target.getFramesPresented(), width, height, seconds, frames / seconds, seconds * 1000 / frames);
+            if (renderer.getWallLayerReuses() > 0) {
+                System.out.printf("Walls reused from the previous frame in %d frames%n", renderer.getWallLayerReuses());
+            }
+            if (budgetMillis > 0 || scale != 1.0) {
+                System.out.printf("Last frame rendered at %dx%d and upscaled%s%n", renderer.getRenderWidth(),
+                        renderer.getRenderHeight(), resolution.getStatus().isEmpty() ? "" : "; " + resolution.getStatus());
+            }
+        } else {
+            System.out.printf("Simulated %d ticks in %.3f s (%.1f ticks/s)%n", frames, seconds, frames / seconds);
+        }
+        if (recording != null) {
+            long hash = world.stateHash();
+            if (hash != recording.getFinalStateHash()) {
+                throw new IllegalStateException(String.format("Replay diverged: state hash %016x, recorded %016x",
+                        hash, recording.getFinalStateHash()));
+            }
+            System.out.printf("Replay matches the recorded state (hash %016x)%n", hash);
+        }
+        if (profile) {
+            for (String line : profiler.report()) {
+                System.out.println(line);
+            }
+            profiler.close();
+        }
+        if (map.getLayer() instanceof ChunkedTileLayer chunks) {
+            chunks.saveAll();
+            System.out.printf("Chunks: %d resident, %d loaded, %d evicted, %d saved%n",
+                    chunks.getResidentChunks(), chunks.getChunksLoaded(), chunks.getChunksEvicted(), chunks.getChunksSaved());
+        }
+
+        if (png != null) {
+            target.writePng(png);
+            System.out.println("Wrote " + png.toAbsolutePath());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.wolfenstein;
+
+import com.example.wolfenstein.games.objects.LevelFile;
+import com.example.wolfenstein.games.objects.Map;
+import com.example.wolfenstein.games.objects.TileFlags;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Writes levels in the binary {@link LevelFile} format.
+ * <p>
+ * Usage: {@code LevelConverter <out.wlvl>} converts the built-in level;
+ * {@code LevelConverter --test-size=4096 [--seed=42] <out.wlvl>} generates a square test level
+ * of rooms joined by doors, with enemies and pickups scattered through it.
+ */
+public class LevelConverter {
+    private static final int ROOM_SIZE = 16;
+
+    public static void main(String[] args) throws IOException {
+        int testSize = 0;
+        long seed = 42;
+        Path out = null;
+
+        for (String arg : args) {
+            if (arg.startsWith("--test-size=")) testSize = Integer.parseInt(arg.substring(12));
+            else if (arg.startsWith("--seed=")) seed = Long.parseLong(arg.substring(7));
+            else if (arg.startsWith("--")) throw new IllegalArgumentException("Unknown argument: " + arg);
+            else out = Path.of(arg);
+        }
+        if (out == null) {
+            throw new IllegalArgumentException("Missing output file");
+        }
+
+        Map map = new Map(testSize > 0 ? testLayout(testSize, seed) : Map.defaultLayout());
+        LevelFile.write(map, out);
+        System.out.printf("Wrote %dx%d level with %d spawns, %d doors and %d pickups to %s%n",
+                map.getWidth(), map.getHeight(), map.getSpawns().size(), map.getDoors().size(),
+                map.getPickups().size(), out.toAbsolutePath());
+    }
+
+    private static int[][] testLayout(int size, long seed) {
+        Random random = new Random(seed);
+        int[][] layout = new int[size][size];
+
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                boolean wallRow = y % ROOM_SIZE == 0 || y == size - 1;
+                boolean wallColumn = x % ROOM_SIZE == 0 || x == size - 1;
+                if (wallRow || wallColumn) {
+                    boolean edge = x == 0 || y == 0 || x == size - 1 || y == size - 1;
+                    boolean doorway = !edge && (wallRow ^ wallColumn)
+                            && (wallRow ? x % ROOM_SIZE : y % ROOM_SIZE) == ROOM_SIZE / 2;
+                    if (doorway) {
+                        layout[y][x] = random.nextInt(8) == 0 ? TileFlags.LOCKED_DOOR : TileFlags.DOOR;
+                    } else {
+                        layout[y][x] = TileFlags.FIRST_WALL + random.nextInt(TileFlags.LAST_WALL);
+                    }
+                    continue;
+                }
+
+                int roll = random.nextInt(256);
+                if (roll == 0) layout[y][x] = TileFlags.ENEMY;
+                else if (roll == 1) layout[y][x] = TileFlags.KEY + random.nextInt(3);
+            }
+        }
+        // Keep the start tile free
+        layout[1][1] = TileFlags.EMPTY;
+        return layout;
+    }
+}
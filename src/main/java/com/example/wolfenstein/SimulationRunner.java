@@ -0,0 +1,293 @@
+package com.example.wolfenstein;
+
+import com.example.wolfenstein.games.GameWorld;
+import com.example.wolfenstein.games.InputRecording;
+import com.example.wolfenstein.games.ScriptedInput;
+import com.example.wolfenstein.games.objects.LevelFile;
+import com.example.wolfenstein.games.objects.Map;
+import com.example.wolfenstein.games.objects.Player;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs many independent game worlds at once without a display, for AI balance and soak tests.
+ * <p>
+ * Every world has its own map, player, enemies and bullets, and is driven either by a
+ * {@link ScriptedInput} seeded per world or by a shared {@link InputRecording}. Worlds run on one
+ * virtual thread each, or on a fixed pool with {@code --threads}. Each world's AI runs serially,
+ * since the parallelism comes from running many worlds. All worlds are loaded before any starts
+ * ticking, so the reported rate covers ticking only and loading is reported on its own.
+ * <p>
+ * Usage: {@code SimulationRunner [--worlds=64] [--ticks=3600] [--threads=0] [--seed=1]
+ * [--level=level.wlvl] [--replay=session.wrec] [--scaling] [--details]}
+ * <p>
+ * {@code --scaling} repeats the run for 1, 2, 4, ... worlds up to {@code --worlds} and prints the
+ * throughput of each step. All its worlds get the seed of world 0, so every step does the same
+ * work per world. Untimed full-size passes warm up the JIT for a few seconds first, and each step
+ * reports the best of {@value #SCALING_REPEATS} runs. {@code --details} prints the outcome of every world.
+ */
+public class SimulationRunner {
+    // Each scaling step reports the best of this many runs, small steps are short and noisy
+    private static final int SCALING_REPEATS = 5;
+    // Full-size passes run before scaling for at least this long, the JIT needs a few seconds
+    private static final long SCALING_WARMUP_NANOS = 5_000_000_000L;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int worlds = 64;
+        int ticks = 3600;
+        int threads = 0;
+        long seed = 1;
+        Path level = null;
+        Path replay = null;
+        boolean scaling = false;
+        boolean details = false;
+
+        for (String arg : args) {
+            if (arg.startsWith("--worlds=")) worlds = Integer.parseInt(arg.substring(9));
+            else if (arg.startsWith("--ticks=")) ticks = Integer.parseInt(arg.substring(8));
+            else if (arg.startsWith("--threads=")) threads = Integer.parseInt(arg.substring(10));
+            else if (arg.startsWith("--seed=")) seed = Long.parseLong(arg.substring(7));
+            else if (arg.startsWith("--level=")) level = Path.of(arg.substring(8));
+            else if (arg.startsWith("--replay=")) replay = Path.of(arg.substring(9));
+            else if (arg.equals("--scaling")) scaling = true;
+            else if (arg.equals("--details")) details = true;
+            else throw new IllegalArgumentException("Unknown argument: " + arg);
+        }
+
+        InputRecording recording = replay != null ? InputRecording.read(replay) : null;
+        if (recording != null) {
+            ticks = recording.getTickCount();
+        }
+        SimulationRunner runner = new SimulationRunner(level, recording, ticks, seed);
+
+        System.out.printf("%d cores, %s, %d ticks per world, %s input%n",
+                Runtime.getRuntime().availableProcessors(),
+                threads > 0 ? threads + " platform threads" : "one virtual thread per world",
+                ticks, recording != null ? "replayed" : "scripted");
+
+        if (scaling) {
+            List<Integer> counts = new ArrayList<>();
+            for (int n = 1; n < worlds; n *= 2) counts.add(n);
+            counts.add(worlds);
+
+            runner.setSameSeed(true);
+            // Untimed passes so the first steps do not measure the JIT warming up
+            long warmupEnd = System.nanoTime() + SCALING_WARMUP_NANOS;
+            for (int pass = 0; pass < 2 || System.nanoTime() < warmupEnd; pass++) {
+                runner.run(worlds, threads);
+            }
+
+            double baseline = 0;
+            System.out.println("worlds   ticks/s   speedup   load ms");
+            for (int n : counts) {
+                double rate = 0;
+                for (int repeat = 0; repeat < SCALING_REPEATS; repeat++) {
+                    rate = Math.max(rate, runner.ticksPerSecond(runner.run(n, threads)));
+                }
+                if (n == 1) baseline = rate;
+                System.out.printf("%6d %9.0f %8.2fx %9.1f%n", n, rate, rate / baseline, runner.loadNanos / 1e6);
+            }
+        } else {
+            List<WorldResult> results = runner.run(worlds, threads);
+            if (details) {
+                System.out.println("world    ticks  outcome   health  enemies      ms  state hash");
+                for (WorldResult result : results) {
+                    System.out.printf("%5d %8d  %-8s %7.2f %4d/%-4d %7.1f  %016x%n",
+                            result.index, result.ticks, result.outcome(), result.health,
+                            result.enemiesLeft, result.enemiesAtStart, result.nanos / 1e6, result.stateHash);
+                }
+            }
+            runner.printSummary(results);
+        }
+    }
+
+    private final Path level;
+    private final InputRecording recording;
+    private final int ticks;
+    private final long seed;
+    // Every world uses the base seed instead of seed + index
+    private boolean sameSeed;
+    // Wall clock of the last run's setup, from submitting the first world to the last one loaded
+    private long loadNanos;
+    // Wall clock of the last run's ticking, from releasing the first world to the last one finishing
+    private long runNanos;
+
+    public SimulationRunner(Path level, InputRecording recording, int ticks, long seed) {
+        this.level = level;
+        this.recording = recording;
+        this.ticks = ticks;
+        this.seed = seed;
+    }
+
+    /**
+     * Gives every world the scripted input and seed of world 0, so runs of different sizes do
+     * the same work per world.
+     */
+    public void setSameSeed(boolean sameSeed) {
+        this.sameSeed = sameSeed;
+    }
+
+    /**
+     * Loads {@code worlds} worlds, then runs them all to completion and returns their outcomes in
+     * world order.
+     *
+     * @param threads size of a fixed platform thread pool, or 0 for a virtual thread per world
+     */
+    public List<WorldResult> run(int worlds, int threads) throws InterruptedException {
+        try (ExecutorService executor = threads > 0
+                ? Executors.newFixedThreadPool(threads)
+                : Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Callable<Simulation>> setups = new ArrayList<>(worlds);
+            for (int i = 0; i < worlds; i++) {
+                int index = i;
+                setups.add(() -> loadWorld(index));
+            }
+            long start = System.nanoTime();
+            List<Simulation> simulations = invokeAll(executor, setups);
+            loadNanos = System.nanoTime() - start;
+
+            List<Callable<WorldResult>> runs = new ArrayList<>(worlds);
+            for (Simulation simulation : simulations) {
+                runs.add(simulation::run);
+            }
+            start = System.nanoTime();
+            List<WorldResult> results = invokeAll(executor, runs);
+            runNanos = System.nanoTime() - start;
+            return results;
+        }
+    }
+
+    private static <T> List<T> invokeAll(ExecutorService executor, List<Callable<T>> tasks) throws InterruptedException {
+        List<T> results = new ArrayList<>(tasks.size());
+        for (Future<T> future : executor.invokeAll(tasks)) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("World failed", e.getCause());
+            }
+        }
+        return results;
+    }
+
+    private Simulation loadWorld(int index) {
+        long worldSeed = sameSeed ? seed : seed + index;
+        Map map = loadMap();
+        Player player = new Player(map.getPlayerStartX(), map.getPlayerStartY());
+        GameWorld world = recording != null
+                ? new GameWorld(map, player, recording.getTickRate(), recording.getSeed())
+                : new GameWorld(map, player, GameWorld.DEFAULT_TICK_RATE, worldSeed);
+        world.setMessagesEnabled(false);
+        world.getEnemyAi().setParallel(false);
+        return new Simulation(index, world, new ScriptedInput(worldSeed));
+    }
+
+    private Map loadMap() {
+        if (level == null) {
+            return new Map();
+        }
+        try {
+            return LevelFile.read(level);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load level " + level, e);
+        }
+    }
+
+    /**
+     * Aggregate simulation rate of the last run: ticks of all worlds over the wall-clock time of
+     * the tick loops, loading excluded.
+     */
+    private double ticksPerSecond(List<WorldResult> results) {
+        long total = 0;
+        for (WorldResult result : results) total += result.ticks;
+        return total / (runNanos / 1e9);
+    }
+
+    private void printSummary(List<WorldResult> results) {
+        long totalTicks = 0;
+        int died = 0;
+        int exited = 0;
+        long enemiesKilled = 0;
+        double worldRates = 0;
+        for (WorldResult result : results) {
+            totalTicks += result.ticks;
+            if (result.died) died++;
+            if (result.exitReached) exited++;
+            enemiesKilled += result.enemiesAtStart - result.enemiesLeft;
+            worldRates += result.ticks / (result.nanos / 1e9);
+        }
+        System.out.printf("%d worlds, %d ticks: player died in %d, reached the exit in %d, %d enemies killed%n",
+                results.size(), totalTicks, died, exited, enemiesKilled);
+        System.out.printf("%.3f s loading, %.3f s ticking, %.0f ticks/s in total, %.0f ticks/s per world on average%n",
+                loadNanos / 1e9, runNanos / 1e9, ticksPerSecond(results), worldRates / results.size());
+    }
+
+    /**
+     * A loaded world waiting to be run, with the input that drives it.
+     */
+    private final class Simulation {
+        final int index;
+        final GameWorld world;
+        final ScriptedInput script;
+        final int enemiesAtStart;
+
+        Simulation(int index, GameWorld world, ScriptedInput script) {
+            this.index = index;
+            this.world = world;
+            this.script = script;
+            this.enemiesAtStart = world.getEnemies().size();
+        }
+
+        WorldResult run() {
+            long start = System.nanoTime();
+            int tick = 0;
+            while (tick < ticks && !world.isGameOver()) {
+                world.tick(recording != null ? recording.getButtons(tick) : script.next());
+                tick++;
+            }
+            long nanos = System.nanoTime() - start;
+
+            return new WorldResult(index, tick, world.isGameOver(), world.isExitReached(), world.getPlayer().getHealth(),
+                    enemiesAtStart, world.getEnemies().size(), world.stateHash(), nanos);
+        }
+    }
+
+    public static final class WorldResult {
+        final int index;
+        final int ticks;
+        final boolean died;
+        final boolean exitReached;
+        final double health;
+        final int enemiesAtStart;
+        final int enemiesLeft;
+        final long stateHash;
+        // Time spent ticking this world, including time its thread was descheduled
+        final long nanos;
+
+        WorldResult(int index, int ticks, boolean died, boolean exitReached, double health,
+                    int enemiesAtStart, int enemiesLeft, long stateHash, long nanos) {
+            this.index = index;
+            this.ticks = ticks;
+            this.died = died;
+            this.exitReached = exitReached;
+            this.health = health;
+            this.enemiesAtStart = enemiesAtStart;
+            this.enemiesLeft = enemiesLeft;
+            this.stateHash = stateHash;
+            this.nanos = nanos;
+        }
+
+        String outcome() {
+            if (died) return "died";
+            return exitReached ? "exit" : "alive";
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.wolfenstein.games;
+
+import com.example.wolfenstein.games.objects.*;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Enemy behaviour for one tick, in two phases.
+ * <p>
+ * <b>Think</b> decides, for every enemy independently, its state, whether it fires and where it
+ * wants to move. It only reads shared data (the map, the player, line of sight) and writes the
+ * enemy's own slots, so it is split across the common fork/join pool for large enemy counts.
+ * <p>
+ * <b>Apply</b> then runs serially in id order: it spawns bullets and performs moves, checking
+ * each move against walls and the enemies that already moved this tick. The outcome does not
+ * depend on how the think phase was split, so ticks are deterministic.
+ * <p>
+ * Chasing enemies steer along a {@link FlowField} towards the player that is built once per
+ * player tile before the think phase, so they walk around walls instead of stopping at them.
+ */
+public class EnemyAi {
+    // Below this many enemies forking costs more than it saves
+    private static final int PARALLEL_THRESHOLD = 1024;
+    private static final int LEAF_SIZE = 256;
+
+    private static final double BULLET_SPEED = 0.035;
+    private static final double BULLET_RANGE = 8.0;
+    private static final double PATROL_SPEED_FACTOR = 0.75;
+
+    private final Map map;
+    private final LineOfSight lineOfSight;
+    private final FlowField flowField;
+
+    private boolean parallel = true;
+
+    // Intents from the think phase, indexed by enemy id
+    private double[] moveX = new double[0];
+    private double[] moveY = new double[0];
+    private boolean[] fire = new boolean[0];
+
+    // Inputs of the current think phase
+    private EnemyStore enemies;
+    private Player player;
+    private double tickSeconds;
+    private double tickScale;
+
+    public EnemyAi(Map map, LineOfSight lineOfSight) {
+        this.map = map;
+        this.lineOfSight = lineOfSight;
+        this.flowField = new FlowField(map);
+        map.addTopologyListener(flowField);
+    }
+
+    public FlowField getFlowField() {
+        return flowField;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public void tick(EnemyStore enemies, Player player, BulletSystem bullets, double tickSeconds, double tickScale) {
+        int count = enemies.size();
+        if (moveX.length < enemies.capacity()) {
+            moveX = Arrays.copyOf(moveX, enemies.capacity());
+            moveY = Arrays.copyOf(moveY, enemies.capacity());
+            fire = Arrays.copyOf(fire, enemies.capacity());
+        }
+        this.enemies = enemies;
+        this.player = player;
+        this.tickSeconds = tickSeconds;
+        this.tickScale = tickScale;
+
+        int playerTileX = (int) player.getPosX();
+        int playerTileY = (int) player.getPosY();
+        lineOfSight.setTarget(playerTileX, playerTileY);
+        flowField.update(playerTileX, playerTileY);
+        // Every enemy reads the player's row, compute it once before the think phase forks
+        map.getVisibility().prepare(playerTileX, playerTileY);
+        if (parallel && count >= PARALLEL_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(new ThinkTask(0, count));
+        } else {
+            think(0, count);
+        }
+
+        apply(enemies, bullets);
+        this.enemies = null;
+        this.player = null;
+    }
+
+    private void think(int from, int to) {
+        PotentiallyVisibleSet visibility = map.getVisibility();
+        double playerX = player.getPosX();
+        double playerY = player.getPosY();
+        int playerTileX = (int) playerX;
+        int playerTileY = (int) playerY;
+
+        for (int i = from; i < to; i++) {
+            moveX[i] = 0;
+            moveY[i] = 0;
+            fire[i] = false;
+            if (enemies.isDead(i)) continue;
+
+            double x = enemies.getX(i);
+            double y = enemies.getY(i);
+            double dx = playerX - x;
+            double dy = playerY - y;
+            double dist = Math.sqrt(dx * dx + dy * dy);
+
+            // The PVS rejects most hidden enemies without walking a line
+            int tileX = (int) x;
+            int tileY = (int) y;
+            boolean seesPlayer = visibility.isVisible(playerTileX, playerTileY, tileX, tileY)
+                    && lineOfSight.canSeeTarget(tileX, tileY);
+
+            if (seesPlayer && dist < enemies.getAttackRange(i)) {
+                enemies.setState(i, EnemyState.ATTACKING);
+
+                double cooldown = enemies.getShootCooldown(i);
+                if (cooldown > 0) cooldown -= tickSeconds;
+                if (cooldown <= 0) {
+                    fire[i] = true;
+                    moveX[i] = dx / dist;
+                    moveY[i] = dy / dist;
+                    cooldown = enemies.getShootInterval(i);
+                }
+                enemies.setShootCooldown(i, cooldown);
+            } else if (seesPlayer && dist < enemies.getChasingRange(i)) {
+                enemies.setState(i, EnemyState.CHASING);
+
+                // Head for the centre of the next tile on the shared path, or straight at the
+                // player once on the same tile or outside the field
+                int direction = flowField.directionFrom(tileX, tileY);
+                if (direction >= 0) {
+                    dx = tileX + FlowField.stepX(direction) + 0.5 - x;
+                    dy = tileY + FlowField.stepY(direction) + 0.5 - y;
+                    dist = Math.sqrt(dx * dx + dy * dy);
+                }
+                double step = enemies.getSpeed(i) * tickScale;
+                if (dist > 0) {
+                    moveX[i] = dx / dist * step;
+                    moveY[i] = dy / dist * step;
+                }
+            } else {
+                enemies.setState(i, EnemyState.PATROL);
+
+                double step = enemies.getSpeed(i) * PATROL_SPEED_FACTOR * tickScale;
+                moveX[i] = enemies.getDirX(i) * step;
+                moveY[i] = enemies.getDirY(i) * step;
+            }
+        }
+    }
+
+    private void apply(EnemyStore enemies, BulletSystem bullets) {
+        EnemyGrid grid = enemies.getGrid();
+
+        for (int i = 0; i < enemies.size(); i++) {
+            if (enemies.isDead(i)) continue;
+            double x = enemies.getX(i);
+            double y = enemies.getY(i);
+
+            switch (enemies.getState(i)) {
+                case ATTACKING -> {
+                    if (fire[i]) {
+                        // For a firing enemy the intent holds the aim direction
+                        bullets.spawn(x, y, moveX[i], moveY[i], BULLET_SPEED, BULLET_RANGE, BulletSystem.OWNER_ENEMY);
+                    }
+                }
+                case CHASING -> {
+                    double newX = x + moveX[i];
+                    if (!map.isSolid((int) newX, (int) y) && !grid.isOccupiedByOther((int) newX, (int) y, i)) {
+                        x = newX;
+                        enemies.moveTo(i, x, y);
+                    }
+
+                    double newY = y + moveY[i];
+                    if (!map.isSolid((int) x, (int) newY) && !grid.isOccupiedByOther((int) x, (int) newY, i)) {
+                        enemies.moveTo(i, x, newY);
+                    }
+                }
+                case PATROL -> {
+                    double nextX = x + moveX[i];
+                    double nextY = y + moveY[i];
+                    if (!map.isSolid((int) nextX, (int) nextY) && !grid.isOccupiedByOther((int) nextX, (int) nextY, i)) {
+                        enemies.moveTo(i, nextX, nextY);
+                    } else {
+                        enemies.setDirection(i, -enemies.getDirX(i), -enemies.getDirY(i));
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
+    // Serializable only through ForkJoinTask, never actually serialized
+    @SuppressWarnings("serial")
+    private class ThinkTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        ThinkTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                think(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ThinkTask(from, mid), new ThinkTask(mid, to));
+        }
+    }
+}
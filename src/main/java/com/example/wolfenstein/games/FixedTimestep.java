@@ -0,0 +1,43 @@
+package com.example.wolfenstein.games;
+
+/**
+ * Accumulator that turns variable frame times into a whole number of fixed simulation ticks.
+ * <p>
+ * Frame time is added with {@link #advance(double)}, which returns how many ticks to run.
+ * The remainder stays in the accumulator and {@link #getAlpha()} tells the renderer how far
+ * between the last two ticks the frame is, for interpolating positions.
+ */
+public class FixedTimestep {
+    // Longest frame we catch up on, so a stall does not trigger a burst of ticks
+    private static final double MAX_FRAME_SECONDS = 0.25;
+
+    private final double tickSeconds;
+    private double accumulator;
+
+    public FixedTimestep(double tickRate) {
+        if (tickRate <= 0) throw new IllegalArgumentException("Tick rate must be positive: " + tickRate);
+        this.tickSeconds = 1.0 / tickRate;
+    }
+
+    public double getTickSeconds() {
+        return tickSeconds;
+    }
+
+    public int advance(double frameSeconds) {
+        accumulator += Math.min(Math.max(frameSeconds, 0), MAX_FRAME_SECONDS);
+        int ticks = (int) (accumulator / tickSeconds);
+        accumulator -= ticks * tickSeconds;
+        return ticks;
+    }
+
+    /**
+     * Fraction of a tick elapsed since the last tick, in [0, 1).
+     */
+    public double getAlpha() {
+        return accumulator / tickSeconds;
+    }
+
+    public void reset() {
+        accumulator = 0;
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.wolfenstein.games;
+
+import com.example.wolfenstein.games.objects.Map;
+import com.example.wolfenstein.games.objects.TileChangeListener;
+
+import java.util.Arrays;
+
+/**
+ * Walking distance from every tile near the target (the player) to the target, shared by all
+ * chasing enemies.
+ * <p>
+ * The field is a breadth-first search over the 8-connected walkable tiles of a square window
+ * centred on the target; diagonal steps may not cut wall corners. Enemies read it in O(1) with
+ * {@link #directionFrom}, so the cost per tick is independent of the number of enemies and
+ * the window bounds it on very large maps.
+ * <p>
+ * The field is rebuilt only when the target changes tile, since that moves the window and
+ * changes every distance in it. A tile that becomes walkable only adds steps around itself, so
+ * it is repaired by a search seeded from that tile and its neighbours; a tile that becomes solid
+ * still rebuilds. In between, every enemy reuses the field. The owner registers the field with
+ * {@link Map#addTopologyListener} to receive those changes. Reads may run on several threads at
+ * once; {@link #update} must not run concurrently with them.
+ */
+public class FlowField implements TileChangeListener {
+    public static final int DEFAULT_RADIUS = 32;
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    // Neighbour offsets: four orthogonal steps first, then the diagonals
+    private static final int[] DIR_X = {1, -1, 0, 0, 1, 1, -1, -1};
+    private static final int[] DIR_Y = {0, 0, 1, -1, 1, -1, 1, -1};
+    // Tile changes kept for the next update, more in one tick rebuild the field
+    private static final int MAX_PENDING = 8;
+
+    private final Map map;
+    private final int radius;
+    private final int size;
+
+    private final int[] distance;
+    private final int[] queue;
+
+    private int targetX = Integer.MIN_VALUE;
+    private int targetY = Integer.MIN_VALUE;
+    // Map coordinates of window cell (0, 0)
+    private int originX;
+    private int originY;
+    // Tiles changed since the last update, as x, y pairs
+    private final int[] pending = new int[MAX_PENDING * 2];
+    private int pendingCount;
+    private boolean rebuildPending;
+    // Repair seeds, sorted by their new distance
+    private final int[] seeds = new int[9];
+
+    private long rebuilds;
+    private long repairs;
+
+    public FlowField(Map map) {
+        this(map, DEFAULT_RADIUS);
+    }
+
+    public FlowField(Map map, int radius) {
+        this.map = map;
+        this.radius = radius;
+        this.size = radius * 2 + 1;
+        this.distance = new int[size * size];
+        // Room for repair seeds that get queued a second time
+        this.queue = new int[size * size + seeds.length];
+        Arrays.fill(distance, UNREACHABLE);
+    }
+
+    /**
+     * Moves the field's target, typically once per tick with the player's tile, and applies the
+     * tile changes since the last call. Does nothing if the target stayed on its tile and no
+     * tile changed.
+     */
+    public void update(int x, int y) {
+        if (x != targetX || y != targetY || rebuildPending) {
+            rebuild(x, y);
+        } else {
+            for (int i = 0; i < pendingCount; i++) {
+                if (!repair(pending[i * 2], pending[i * 2 + 1])) {
+                    rebuild(x, y);
+                    break;
+                }
+            }
+        }
+        pendingCount = 0;
+        rebuildPending = false;
+    }
+
+    /**
+     * Queues a tile change for the next {@link #update}.
+     */
+    @Override
+    public void tileChanged(int x, int y) {
+        if (pendingCount == MAX_PENDING) {
+            rebuildPending = true;
+            return;
+        }
+        pending[pendingCount * 2] = x;
+        pending[pendingCount * 2 + 1] = y;
+        pendingCount++;
+    }
+
+    /**
+     * Steps from tile (x, y) to the target, or {@link #UNREACHABLE} if there is no path inside
+     * the window.
+     */
+    public int distance(int x, int y) {
+        int wx = x - originX;
+        int wy = y - originY;
+        if (wx < 0 || wy < 0 || wx >= size || wy >= size) return UNREACHABLE;
+        return distance[wy * size + wx];
+    }
+
+    /**
+     * Index of the neighbour of tile (x, y) that is one step closer to the target, for
+     * {@link #stepX} and {@link #stepY}, or -1 if (x, y) is the target or has no path.
+     */
+    public int directionFrom(int x, int y) {
+        int here = distance(x, y);
+        if (here == UNREACHABLE || here == 0) return -1;
+        for (int d = 0; d < DIR_X.length; d++) {
+            if (distance(x + DIR_X[d], y + DIR_Y[d]) == here - 1 && canStep(x, y, d)) {
+                return d;
+            }
+        }
+        return -1;
+    }
+
+    public static int stepX(int direction) {
+        return DIR_X[direction];
+    }
+
+    public static int stepY(int direction) {
+        return DIR_Y[direction];
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    /**
+     * Number of searches done so far.
+     */
+    public long getRebuilds() {
+        return rebuilds;
+    }
+
+    /**
+     * Number of local repairs after a tile became walkable.
+     */
+    public long getRepairs() {
+        return repairs;
+    }
+
+    private void rebuild(int x, int y) {
+        targetX = x;
+        targetY = y;
+        originX = x - radius;
+        originY = y - radius;
+        rebuilds++;
+
+        Arrays.fill(distance, UNREACHABLE);
+        if (map.isSolid(x, y)) return;
+
+        int start = radius * size + radius;
+        distance[start] = 0;
+        queue[0] = start;
+        search(0, 1);
+    }
+
+    /**
+     * Lowers the distances that tile (x, y) becoming walkable shortens. Every step it frees
+     * starts and ends on the tile or one of its eight neighbours, so those are the only cells
+     * that can get shorter first; the search carries that outward.
+     *
+     * @return false if the field has to be rebuilt instead: the tile became solid, or it is the
+     * target
+     */
+    private boolean repair(int x, int y) {
+        int wx = x - originX;
+        int wy = y - originY;
+        if (wx < 0 || wy < 0 || wx >= size || wy >= size) return true;
+        if (map.isSolid(x, y) || (x == targetX && y == targetY)) return false;
+        repairs++;
+
+        int count = 0;
+        for (int cy = y - 1; cy <= y + 1; cy++) {
+            for (int cx = x - 1; cx <= x + 1; cx++) {
+                int cell = cellOf(cx, cy);
+                if (cell < 0 || map.isSolid(cx, cy)) continue;
+                int best = UNREACHABLE;
+                for (int d = 0; d < DIR_X.length; d++) {
+                    int neighbour = cellOf(cx + DIR_X[d], cy + DIR_Y[d]);
+                    if (neighbour < 0 || distance[neighbour] == UNREACHABLE || !canStep(cx, cy, d)) continue;
+                    best = Math.min(best, distance[neighbour] + 1);
+                }
+                if (best >= distance[cell]) continue;
+                distance[cell] = best;
+                // Insertion sort by distance, at most nine seeds
+                int i = count++;
+                while (i > 0 && distance[seeds[i - 1]] > best) {
+                    seeds[i] = seeds[i - 1];
+                    i--;
+                }
+                seeds[i] = cell;
+            }
+        }
+
+        // Seeds join the queue once the search reaches their distance, which keeps it in
+        // distance order
+        int head = 0;
+        int tail = 0;
+        int seed = 0;
+        while (seed < count || head < tail) {
+            if (head == tail || (seed < count && distance[seeds[seed]] <= distance[queue[head]])) {
+                queue[tail++] = seeds[seed++];
+            }
+            tail = expand(queue[head++], tail);
+        }
+        return true;
+    }
+
+    private int cellOf(int x, int y) {
+        int wx = x - originX;
+        int wy = y - originY;
+        if (wx < 0 || wy < 0 || wx >= size || wy >= size) return -1;
+        return wy * size + wx;
+    }
+
+    /**
+     * Breadth-first search from the queued cells; cells leave the queue in distance order, so
+     * each is labelled once.
+     */
+    private void search(int head, int tail) {
+        while (head < tail) {
+            tail = expand(queue[head++], tail);
+        }
+    }
+
+    /**
+     * Labels and queues the neighbours of a cell that it gives a shorter distance.
+     */
+    private int expand(int cell, int tail) {
+        int next = distance[cell] + 1;
+        int x = originX + cell % size;
+        int y = originY + cell / size;
+        for (int d = 0; d < DIR_X.length; d++) {
+            int wx = x + DIR_X[d] - originX;
+            int wy = y + DIR_Y[d] - originY;
+            if (wx < 0 || wy < 0 || wx >= size || wy >= size) continue;
+            int neighbour = wy * size + wx;
+            if (distance[neighbour] <= next || !canStep(x, y, d)) continue;
+            distance[neighbour] = next;
+            queue[tail++] = neighbour;
+        }
+        return tail;
+    }
+
+    /**
+     * Whether one step in direction d from tile (x, y) is allowed. Steps are symmetric, so the
+     * same test serves the search outward from the target and the walk back towards it.
+     */
+    private boolean canStep(int x, int y, int d) {
+        int dx = DIR_X[d];
+        int dy = DIR_Y[d];
+        if (map.isSolid(x + dx, y + dy)) return false;
+        // Diagonals need both side tiles free so enemies do not clip wall corners
+        return dx == 0 || dy == 0 || (!map.isSolid(x + dx, y) && !map.isSolid(x, y + dy));
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.wolfenstein.games;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning one displayed frame: the ticks run for it, rendering and the HUD.
+ * <p>
+ * Disabled by default; enable it in a recording with
+ * {@code jfr configure com.example.wolfenstein.Frame#enabled=true} or a custom .jfc. While it is
+ * not recorded, {@code begin} / {@code shouldCommit} are no-ops and the JIT removes the event
+ * object altogether.
+ */
+@Name("com.example.wolfenstein.Frame")
+@Label("Frame")
+@Category("Wolfenstein")
+@Description("One rendered frame")
+@Enabled(false)
+@StackTrace(false)
+public class FrameEvent extends jdk.jfr.Event {
+    @Label("Ticks")
+    public int ticks;
+
+    @Label("Enemies")
+    public int enemies;
+
+    @Label("Bullets")
+    public int bullets;
+
+    @Label("Sprites Drawn")
+    public int spritesDrawn;
+}
@@ -0,0 +1,26 @@
+package com.example.wolfenstein.games;
+
+/**
+ * Timed sections of a frame, see {@link FrameProfiler}. Tick phases are recorded once per
+ * simulation tick, the others once per rendered frame.
+ */
+public enum FramePhase {
+    INPUT("input"),
+    ENEMIES("enemies"),
+    BULLETS("bullets"),
+    RESIDENCY("residency"),
+    RENDER("render"),
+    WEAPON("weapon"),
+    HUD("hud"),
+    FRAME("frame");
+
+    private final String label;
+
+    FramePhase(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.wolfenstein.games;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-phase frame timings.
+ * <p>
+ * The game loop brackets each {@link FramePhase} with {@link #begin} and {@link #lap}, which
+ * read {@link System#nanoTime} and add to that phase's {@link LatencyHistogram}. Nothing is
+ * allocated on that path, and when the profiler is disabled both calls return at once.
+ * <p>
+ * {@link #report} drains the histograms, turns them into p50 / p99 / max per phase for the
+ * overlay and appends them to the CSV file if one was given. {@link #startReporting} calls it
+ * periodically from a daemon thread, so formatting and file I/O stay off the frame.
+ */
+public class FrameProfiler {
+    private static final FramePhase[] PHASES = FramePhase.values();
+    private static final String CSV_HEADER = "time_ms,phase,count,p50_us,p99_us,max_us";
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[PHASES.length];
+    private volatile boolean enabled;
+
+    // Reporting state, only touched under the report lock
+    private final long[] drained = new long[LatencyHistogram.BUCKET_COUNT];
+    private final Path csvFile;
+    private BufferedWriter csv;
+    private boolean csvFailed;
+    private ScheduledExecutorService reporter;
+
+    // Overlay text of the last completed interval
+    private volatile String[] lines = new String[0];
+
+    public FrameProfiler() {
+        this(false, null);
+    }
+
+    /**
+     * @param csvFile where {@link #report} appends one row per phase, or null for no file
+     */
+    public FrameProfiler(boolean enabled, Path csvFile) {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+        this.enabled = enabled;
+        this.csvFile = csvFile;
+    }
+
+    /**
+     * Profiler configured from {@code -Dwolf.profile=true} and
+     * {@code -Dwolf.profile.csv=timings.csv}.
+     */
+    public static FrameProfiler fromSystemProperties() {
+        String csv = System.getProperty("wolf.profile.csv");
+        return new FrameProfiler(Boolean.getBoolean("wolf.profile"), csv != null ? Path.of(csv) : null);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Start time of the first phase, or 0 when disabled.
+     */
+    public long begin() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the time since {@code start} for {@code phase} and returns the current time, to be
+     * passed as the start of the next phase.
+     */
+    public long lap(FramePhase phase, long start) {
+        if (!enabled) return 0;
+        long now = System.nanoTime();
+        // Enabled after begin() was called; skip the bogus first sample
+        if (start != 0) histograms[phase.ordinal()].record(now - start);
+        return now;
+    }
+
+    /**
+     * Latest overlay lines, one per phase that ran during the last reported interval.
+     */
+    public String[] getLines() {
+        return lines;
+    }
+
+    /**
+     * Calls {@link #report} every {@code intervalMillis} on a daemon thread.
+     */
+    public synchronized void startReporting(long intervalMillis) {
+        if (reporter != null) return;
+        reporter = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "frame-profiler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(this::report, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Summarises and clears everything recorded since the previous report.
+     *
+     * @return the new overlay lines
+     */
+    public synchronized String[] report() {
+        long time = System.currentTimeMillis();
+        String[] summary = new String[PHASES.length];
+        StringBuilder rows = new StringBuilder();
+        int count = 0;
+
+        for (FramePhase phase : PHASES) {
+            long max = histograms[phase.ordinal()].drainInto(drained);
+            long samples = LatencyHistogram.totalCount(drained);
+            if (samples == 0) continue;
+
+            double p50 = LatencyHistogram.valueAtQuantile(drained, 0.50) / 1e3;
+            double p99 = LatencyHistogram.valueAtQuantile(drained, 0.99) / 1e3;
+            summary[count++] = String.format(Locale.ROOT, "%-9s p50 %7.1f  p99 %7.1f  max %7.1f us",
+                    phase.getLabel(), p50, p99, max / 1e3);
+            rows.append(String.format(Locale.ROOT, "%d,%s,%d,%.1f,%.1f,%.1f%n",
+                    time, phase.getLabel(), samples, p50, p99, max / 1e3));
+        }
+
+        String[] result = new String[count];
+        System.arraycopy(summary, 0, result, 0, count);
+        lines = result;
+        writeCsv(rows);
+        return result;
+    }
+
+    /**
+     * Stops the reporting thread, writes a final report and closes the CSV file.
+     */
+    public synchronized void close() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+        report();
+        if (csv != null) {
+            try {
+                csv.close();
+            } catch (IOException e) {
+                System.err.println("Could not close profiler CSV " + csvFile + ": " + e.getMessage());
+            }
+            csv = null;
+        }
+    }
+
+    private void writeCsv(CharSequence rows) {
+        if (csvFile == null || csvFailed || rows.isEmpty()) return;
+        try {
+            if (csv == null) {
+                boolean fresh = !Files.exists(csvFile) || Files.size(csvFile) == 0;
+                csv = Files.newBufferedWriter(csvFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                if (fresh) {
+                    csv.write(CSV_HEADER);
+                    csv.newLine();
+                }
+            }
+            csv.append(rows);
+            csv.flush();
+        } catch (IOException e) {
+            // Keep the game and the overlay running; timings just stop going to the file
+            System.err.println("Could not write profiler CSV " + csvFile + ": " + e.getMessage());
+            csvFailed = true;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.wolfenstein.games;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+
+import java.nio.IntBuffer;
+
+/**
+ * Presents the framebuffer on a JavaFX canvas through a WritableImage, one drawImage per frame.
+ */
+public class FxRenderTarget implements RenderTarget {
+    private final GraphicsContext gc;
+    private final int width;
+    private final int height;
+
+    private final int[] pixels;
+    private final WritableImage image;
+    private final PixelWriter writer;
+    private final PixelFormat<IntBuffer> pixelFormat = PixelFormat.getIntArgbPreInstance();
+
+    public FxRenderTarget(GraphicsContext gc, int width, int height) {
+        this.gc = gc;
+        this.width = width;
+        this.height = height;
+        this.pixels = new int[width * height];
+        this.image = new WritableImage(width, height);
+        this.writer = image.getPixelWriter();
+    }
+
+    public GraphicsContext getGraphicsContext() {
+        return gc;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    @Override
+    public void present() {
+        writer.setPixels(0, 0, width, height, pixelFormat, pixels, 0, width);
+        gc.drawImage(image, 0, 0);
+    }
+}
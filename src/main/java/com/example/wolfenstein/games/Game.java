@@ -1,6 +1,8 @@
 package com.example.wolfenstein.games;
 
-import com.example.wolfenstein.games.objects.*;
+import com.example.wolfenstein.games.objects.LevelFile;
+import com.example.wolfenstein.games.objects.Map;
+import com.example.wolfenstein.games.objects.Player;
 import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
 import javafx.scene.Scene;
@@ -11,52 +13,74 @@ import javafx.scene.input.KeyCode;
 import javafx.scene.layout.StackPane;
 import javafx.stage.Stage;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
 
 public class Game {
 
     private static final int WIDTH = 1024;
     private static final int HEIGHT = 768;
-    private static final double DELTA_TIME = 1.0 / 60.0;
+
+    // Simulation ticks per second, independent of the display refresh rate
+    private static final double TICK_RATE = Double.parseDouble(System.getProperty("wolf.sim.tickRate", "60"));
+    // Optional level file written by LevelConverter, the built-in level otherwise
+    private static final String LEVEL = System.getProperty("wolf.level");
+    // Wall time per frame spent running ticks in fast-forward mode
+    private static final long FAST_FORWARD_BUDGET_NANOS = 12_000_000;
+    // Seed of the simulation's randomness
+    private static final long SEED = Long.getLong("wolf.seed", GameWorld.DEFAULT_SEED);
+    // Optional file the session's input is recorded to, for replay with HeadlessApplication
+    private static final String RECORD = System.getProperty("wolf.record");
+    // How often the profiler overlay and CSV file are refreshed
+    private static final long PROFILER_REPORT_MILLIS = 1000;
 
     private Canvas canvas;
     private GraphicsContext gc;
 
     private Renderer renderer;
+    // Adjusts the render resolution to the frame budget when -Dwolf.render.dynamic=true
+    private ResolutionController resolution;
 
-    private Map map;
-
-    private Player player;
-    private final List<Bullet> bullets;
+    private GameWorld world;
+    private InputRecorder recorder;
+    private final FixedTimestep timestep = new FixedTimestep(TICK_RATE);
 
-    private final List<Enemy> enemies;
-    private final List<Bullet> enemyBullets;
+    // Phase timings, enabled with -Dwolf.profile=true or F3, shown by the overlay
+    private final FrameProfiler profiler = FrameProfiler.fromSystemProperties();
+    private final ProfilerOverlay profilerOverlay = new ProfilerOverlay();
+    private boolean profilerOverlayVisible = false;
 
     private boolean gameOver = false;
+    private boolean fastForward = false;
 
-    private double lastUpdateTime = 0;
-    private double currentDeltaTime = 1.0 / 60.0;
+    private long lastFrameTime = 0;
 
     private final Set<KeyCode> pressedKeys = new HashSet<>();
-    private boolean spacePressedLastFrame = false;
-
-    public Game() {
-        bullets = new ArrayList<>();
-        enemies = new ArrayList<>();
-        enemyBullets = new ArrayList<>();
-    }
+    // Actions pressed since the last tick, so a tap shorter than a tick is not lost
+    private int latchedButtons = 0;
 
     public void start(Stage stage) {
         canvas = new Canvas(WIDTH, HEIGHT);
         gc = canvas.getGraphicsContext2D();
 
-        map = new Map();
-        player = new Player(1.5, 1.5);
+        Map map = loadMap();
+        world = new GameWorld(map, new Player(map.getPlayerStartX(), map.getPlayerStartY()), TICK_RATE, SEED);
+        if (RECORD != null) {
+            recorder = new InputRecorder(world);
+        }
+        world.setProfiler(profiler);
         renderer = new Renderer(WIDTH, HEIGHT); // game render
-        initEnemy();
+        resolution = new ResolutionController(renderer.getSettings());
+        profiler.startReporting(PROFILER_REPORT_MILLIS);
+        Runnable raycastStats = RaycastStatsEvent.register(renderer, world.getLineOfSight());
+        stage.setOnHidden(e -> {
+            saveRecording();
+            profiler.close();
+            RaycastStatsEvent.unregister(raycastStats);
+        });
 
         Scene scene = new Scene(new StackPane(canvas));
         stage.setTitle("Wolf 2.5D");
@@ -67,265 +91,78 @@ public class Game {
         startGameLoop();
     }
 
-    private void initEnemy() {
-        for (int x = 0; x < map.getHeight(); x++) {
-            for (int y = 0; y < map.getWidth(); y++) {
-                if (map.isEnemy(x, y)) {
-                    enemies.add(new Enemy(x, y));
-                    map.removeEnemy(x, y);
-                }
-            }
+    private static Map loadMap() {
+        if (LEVEL == null) {
+            return new Map();
+        }
+        try {
+            return LevelFile.read(Path.of(LEVEL));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load level " + LEVEL, e);
         }
     }
 
-
     private void setupInput(Scene scene) {
         scene.setOnKeyPressed(e -> {
             if (gameOver) return;
             pressedKeys.add(e.getCode());
+            latchedButtons |= actionMask(e.getCode());
+
+            // F: toggle fast-forward, ticks run as fast as possible and rendering is skipped
+            if (e.getCode() == KeyCode.F) {
+                fastForward = !fastForward;
+                timestep.reset();
+                System.out.println("Fast-forward " + (fastForward ? "on" : "off"));
+            }
 
-            if (e.getCode() == KeyCode.E) {
-                tryOpenDoor();
+            // F3: toggle the frame timing overlay, profiling stays on once it was shown
+            if (e.getCode() == KeyCode.F3) {
+                profilerOverlayVisible = !profilerOverlayVisible;
+                if (profilerOverlayVisible) profiler.setEnabled(true);
             }
         });
 
         scene.setOnKeyReleased(e -> pressedKeys.remove(e.getCode()));
     }
 
-    private void handleInput() {
-        if (pressedKeys.contains(KeyCode.W)) {
-            player.moveForward(2.5 * currentDeltaTime, map, enemies);
-            checkCollectibles();
-            if (map.isExit((int) player.getPosX(), (int) player.getPosY())) {
-                System.out.println("Level Complete! Proceed to next level..");
-            }
-        }
-        if (pressedKeys.contains(KeyCode.S)) {
-            player.moveBackward(2.5 * currentDeltaTime, map, enemies);
-            checkCollectibles();
-            if (map.isExit((int) player.getPosX(), (int) player.getPosY())) {
-                System.out.println("Level Complete! Proceed to next level..");
-            }
-        }
-        if (pressedKeys.contains(KeyCode.A)) {
-            player.rotateLeft(2.0 * currentDeltaTime);
-        }
-        if (pressedKeys.contains(KeyCode.D)) {
-            player.rotateRight(2.0 * currentDeltaTime);
-        }
-
-        // SPACE: Fire one shot per keypress, not autofire
-        if (pressedKeys.contains(KeyCode.SPACE)) {
-            if (!spacePressedLastFrame) {
-                var bullet = player.shoot();
-                if (bullet != null) {
-                    bullets.add(bullet);
-                }
-                spacePressedLastFrame = true;
-            }
-        } else {
-            spacePressedLastFrame = false;
-        }
+    private static int actionMask(KeyCode code) {
+        return switch (code) {
+            case W -> InputAction.FORWARD.mask();
+            case S -> InputAction.BACKWARD.mask();
+            case A -> InputAction.TURN_LEFT.mask();
+            case D -> InputAction.TURN_RIGHT.mask();
+            case SPACE -> InputAction.FIRE.mask();
+            case E -> InputAction.USE.mask();
+            default -> 0;
+        };
     }
 
-    private void checkCollectibles() {
-        int px = (int) player.getPosX();
-        int py = (int) player.getPosY();
-
-        if (map.isKey(px, py)) {
-            player.setKeys(player.getKeys() + 1);
-            map.collectItem(px, py);
-            System.out.println("Picked up a key! Keys: " + player.getKeys());
+    private void runTick() {
+        int buttons = latchedButtons;
+        for (KeyCode code : pressedKeys) {
+            buttons |= actionMask(code);
         }
-
-        if (map.isHealth(px, py)) {
-            player.setHealth(Math.min(1.0, player.getHealth() + 0.5));
-            map.collectItem(px, py);
-            System.out.println("Picked up a health pack! Health: " + player.getHealth());
-        }
-
-        if (map.isAmmo(px, py)) {
-            player.setAmmo(player.getAmmo() + 5);
-            map.collectItem(px, py);
-            System.out.println("Picked up a ammo pack! Ammo: " + player.getAmmo());
+        latchedButtons = 0;
+        if (recorder != null && !world.isGameOver()) {
+            recorder.record(buttons);
         }
+        world.tick(buttons);
     }
 
-    private void tryOpenDoor() {
-        int facingX = (int)(player.getPosX() + player.getDirX());
-        int facingY = (int)(player.getPosY() + player.getDirY());
-        if (map.isDoor(facingX, facingY)) {
-            map.openDoor(facingX, facingY);
-        } else if (map.isLockedDoor(facingX, facingY)) {
-            if (player.getKeys() > 0) {
-                map.unlockDoor(facingX, facingY);
-                player.setKeys(player.getKeys() - 1);
-                System.out.println("Unlocked a door! Remaining keys: " + player.getKeys());
-            } else {
-                System.out.println("Need a key to open this door!");
-            }
-        }
-    }
-
-    private void updateBullets() {
-        List<Bullet> toRemove = new ArrayList<>();
-        for (Bullet bullet : bullets) {
-            bullet.setX(bullet.getX() + bullet.getDirX() * bullet.getSpeed());
-            bullet.setY(bullet.getY() + bullet.getDirY() * bullet.getSpeed());
-
-            int gridX = (int) bullet.getX();
-            int gridY = (int) bullet.getY();
-
-            // Check distance from player
-            double dx = bullet.getX() - player.getPosX();
-            double dy = bullet.getY() - player.getPosY();
-            double distance = Math.sqrt(dx * dx + dy * dy);
-
-            // Remove bullet if it hit a wall or traveled too far
-            if (map.isWall(gridX, gridY) || distance > bullet.getMaxDistance()) {
-                toRemove.add(bullet);
-                continue;
-            }
-
-            // Check collision with any enemy
-            for (Enemy enemy : enemies) {
-                if ((int)enemy.getX() == gridX && (int)enemy.getY() == gridY) {
-                    enemy.setHealth(enemy.getHealth() - player.getDamage());
-                    toRemove.add(bullet);
-                    break;
-                }
-            }
+    private void saveRecording() {
+        if (recorder == null) return;
+        try {
+            recorder.finish(world).write(Path.of(RECORD));
+            System.out.println("Recorded " + recorder.getTickCount() + " ticks to " + RECORD);
+        } catch (IOException e) {
+            System.err.println("Could not save recording " + RECORD + ": " + e.getMessage());
         }
-        bullets.removeAll(toRemove);
-        enemies.removeIf(Enemy::isDead);
-    }
-
-    private void updateEnemyBullets() {
-        List<Bullet> toRemove = new ArrayList<>();
-        for (Bullet bullet : enemyBullets) {
-            bullet.setX(bullet.getX() + bullet.getDirX() * bullet.getSpeed());
-            bullet.setY(bullet.getY() + bullet.getDirY() * bullet.getSpeed());
-
-            int gridX = (int) bullet.getX();
-            int gridY = (int) bullet.getY();
-
-            double dx = bullet.getX() - player.getPosX();
-            double dy = bullet.getY() - player.getPosY();
-            double distance = Math.sqrt(dx * dx + dy * dy);
-
-            if (map.isWall(gridX, gridY) || distance > bullet.getMaxDistance()) {
-                toRemove.add(bullet);
-                continue;
-            }
-
-            double hitDist = 0.25;
-            if (Math.abs(player.getPosX() - bullet.getX()) < hitDist && Math.abs(player.getPosY() - bullet.getY()) < hitDist) {
-                player.takeDamage(0.3);
-                toRemove.add(bullet);
-                if (player.isDead()) {
-                    onGameOver();
-                }
-            }
-        }
-        enemyBullets.removeAll(toRemove);
-    }
-
-    private void updateEnemies() {
-        for (Enemy enemy : enemies) {
-            if (enemy.isDead()) continue;
-
-            double dx = player.getPosX() - enemy.getX();
-            double dy = player.getPosY() - enemy.getY();
-            double dist = Math.sqrt(dx * dx + dy * dy);
-
-            if (enemyCanSeePlayer(enemy, player, map)) {
-                if (dist < enemy.getAttackRange()) {
-                    enemy.setState(EnemyState.ATTACKING);
-
-                    if (enemy.getShootCooldown() > 0)
-                        enemy.setShootCooldown(enemy.getShootCooldown() - DELTA_TIME);
-
-                    if (enemy.getShootCooldown() <= 0) {
-                        double dirX = dx / dist;
-                        double dirY = dy / dist;
-                        enemyBullets.add(new Bullet(
-                                enemy.getX(), enemy.getY(),
-                                dirX, dirY,
-                                0.035,
-                                8.0
-                        ));
-                        enemy.setShootCooldown(enemy.getShootInterval());
-                    }
-                } else if (dist < enemy.getChasingRange()) {
-                    enemy.setState(EnemyState.CHASING);
-
-                    double step = enemy.getSpeed();
-                    double moveX = dx / dist * step;
-                    double moveY = dy / dist * step;
-
-                    double newX = enemy.getX() + moveX;
-                    if (!map.isWall((int) newX, (int) enemy.getY()) && !enemyAt((int) newX, (int) enemy.getY(), enemy))
-                        enemy.setX(newX);
-
-                    double newY = enemy.getY() + moveY;
-                    if (!map.isWall((int) enemy.getX(), (int) newY) && !enemyAt((int) enemy.getX(), (int) newY, enemy))
-                        enemy.setY(newY);
-                } else {
-                    enemy.setState(EnemyState.PATROL);
-                }
-            } else {
-                enemy.setState(EnemyState.PATROL);
-            }
-
-            if (enemy.getState() == EnemyState.PATROL) {
-                double patrolStep = enemy.getSpeed() * 0.75;
-                double nextX = enemy.getX() + enemy.getDirX() * patrolStep;
-                double nextY = enemy.getY() + enemy.getDirY() * patrolStep;
-
-                if (!map.isWall((int) nextX, (int) nextY) && !enemyAt((int) nextX, (int) nextY, enemy)) {
-                    enemy.setX(nextX);
-                    enemy.setY(nextY);
-                } else {
-                    enemy.setDirX(-enemy.getDirX());
-                    enemy.setDirY(-enemy.getDirY());
-                }
-            }
-        }
-    }
-
-
-
-    private boolean enemyCanSeePlayer(Enemy enemy, Player player, Map map) {
-        double x0 = enemy.getX();
-        double y0 = enemy.getY();
-
-        double x1 = player.getPosX();
-        double y1 = player.getPosY();
-
-        double dx = x1 - x0;
-        double dy = y1 - y0;
-
-        double dist = Math.sqrt(dx * dx + dy * dy);
-
-        int steps = (int) (dist * 10);
-        for (int i = 1; i < steps; i++) {
-            double tx = x0 + dx * i / steps;
-            double ty = y0 + dy * i / steps;
-            if (map.isWall((int) tx, (int) ty)) return false;
-        }
-        return true;
-    }
-
-    private boolean enemyAt(int x, int y, Enemy self) {
-        for (Enemy other : enemies)
-            if (other != self && (int) other.getX() == x && (int) other.getY() == y)
-                return true;
-        return false;
+        recorder = null;
     }
 
     private void onGameOver() {
         gameOver = true;
-        System.out.println("GAME OVER");
+        saveRecording();
 
         Platform.runLater(() -> {
             Alert alert = new Alert(Alert.AlertType.INFORMATION);
@@ -336,29 +173,72 @@ public class Game {
         });
     }
 
+    private void commitFrameEvent(FrameEvent event, int ticks) {
+        if (event.shouldCommit()) {
+            event.ticks = ticks;
+            event.enemies = world.getEnemies().size();
+            event.bullets = world.getBullets().size();
+            event.spritesDrawn = fastForward ? 0 : renderer.getSpritesDrawn();
+            event.commit();
+        }
+    }
+
     private void startGameLoop() {
         new AnimationTimer() {
             public void handle(long now) {
                 if (gameOver) return;
-                if (lastUpdateTime == 0) lastUpdateTime = now;
-
-                double deltaTime = (now - lastUpdateTime) / 1e9;
-
-                // Clamp deltaTime to max 0.1 (100 ms) for smoothness
-                if (deltaTime > 0.1) deltaTime = 0.1;
-
-                currentDeltaTime = deltaTime;
-                lastUpdateTime = now;
+                if (lastFrameTime == 0) lastFrameTime = now;
+                long frameStart = profiler.begin();
+                FrameEvent frameEvent = new FrameEvent();
+                frameEvent.begin();
+                int ticksRun = 0;
+
+                double frameSeconds = (now - lastFrameTime) / 1e9;
+                lastFrameTime = now;
+
+                if (fastForward) {
+                    long deadline = System.nanoTime() + FAST_FORWARD_BUDGET_NANOS;
+                    do {
+                        runTick();
+                        ticksRun++;
+                    } while (!world.isGameOver() && System.nanoTime() < deadline);
+                } else {
+                    int ticks = timestep.advance(frameSeconds);
+                    for (int i = 0; i < ticks; i++) {
+                        runTick();
+                    }
+                    ticksRun = ticks;
+                }
 
-                handleInput();
+                if (world.isGameOver()) {
+                    onGameOver();
+                }
+                if (fastForward) {
+                    commitFrameEvent(frameEvent, ticksRun);
+                    return;
+                }
 
+                long renderStart = System.nanoTime();
+                int wallLayerReuses = renderer.getWallLayerReuses();
+                long time = profiler.begin();
                 gc.clearRect(0, 0, WIDTH, HEIGHT);
-                updateEnemies();
-                updateBullets();
-                updateEnemyBullets();
-                renderer.render(gc, player, map, bullets, enemyBullets, enemies);
-                renderer.renderWeapon(gc, player);
-                renderer.renderHUD(gc, player);
+                renderer.render(gc, world.getPlayer(), world.getMap(), world.getBullets(), world.getEnemies(), timestep.getAlpha());
+                time = profiler.lap(FramePhase.RENDER, time);
+                renderer.renderWeapon(gc, world.getPlayer());
+                time = profiler.lap(FramePhase.WEAPON, time);
+                renderer.renderHUD(gc, world.getPlayer());
+                long renderNanos = System.nanoTime() - renderStart;
+                profiler.lap(FramePhase.HUD, time);
+                profiler.lap(FramePhase.FRAME, frameStart);
+                // Frames that copied the previous walls say nothing about casting at this scale
+                if (renderer.getWallLayerReuses() == wallLayerReuses) {
+                    resolution.onFrame(renderNanos);
+                }
+
+                if (profilerOverlayVisible) {
+                    profilerOverlay.render(gc, profiler, resolution.getStatus());
+                }
+                commitFrameEvent(frameEvent, ticksRun);
             }
         }.start();
     }
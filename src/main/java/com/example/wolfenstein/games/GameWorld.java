@@ -0,0 +1,318 @@
+package com.example.wolfenstein.games;
+
+import com.example.wolfenstein.games.objects.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.SplittableRandom;
+
+/**
+ * Simulation state of one game: the map, the player, enemies and bullets.
+ * <p>
+ * Has no JavaFX dependencies, so it can be driven by {@link Game} on the FX thread or run
+ * headless on servers without a display.
+ */
+@Getter
+public class GameWorld {
+    public static final double DEFAULT_TICK_RATE = 60.0;
+    public static final long DEFAULT_SEED = 1;
+
+    // Per-tick speeds of enemies and bullets were tuned for 60 ticks per second
+    private static final double BASE_TICK_SECONDS = 1.0 / 60.0;
+
+    private static final double PLAYER_MOVE_SPEED = 2.5;
+    private static final double PLAYER_ROTATE_SPEED = 2.0;
+
+    private final double tickRate;
+    private final double tickSeconds;
+    // Scales per-tick speeds so game speed does not depend on the tick rate
+    private final double tickScale;
+    private long tickCount;
+    private int previousButtons;
+
+    // Any randomness the simulation needs must come from here, so a seed and the inputs fix the
+    // outcome; nothing draws from it yet
+    private final long seed;
+    @Getter(AccessLevel.NONE)
+    private final SplittableRandom random;
+
+    private final Map map;
+    private final Player player;
+
+    // Player and enemy bullets, told apart by owner
+    private final BulletSystem bullets;
+    // Enemies and their tile occupancy grid, kept in sync as they move, spawn and die
+    private final EnemyStore enemies;
+    private final LineOfSight lineOfSight;
+    private final EnemyAi enemyAi;
+
+    // Times the phases of each tick; disabled unless a caller sets an enabled one
+    @Setter
+    private FrameProfiler profiler = new FrameProfiler();
+
+    private boolean gameOver = false;
+    private boolean exitReached = false;
+
+    // Console messages for pickups, doors and game over; off for batch runs of many worlds
+    @Setter
+    private boolean messagesEnabled = true;
+
+    public GameWorld() {
+        this(new Map());
+    }
+
+    public GameWorld(Map map) {
+        this(map, new Player(map.getPlayerStartX(), map.getPlayerStartY()));
+    }
+
+    public GameWorld(Map map, Player player) {
+        this(map, player, DEFAULT_TICK_RATE);
+    }
+
+    public GameWorld(Map map, Player player, double tickRate) {
+        this(map, player, tickRate, DEFAULT_SEED);
+    }
+
+    public GameWorld(Map map, Player player, double tickRate, long seed) {
+        this.tickRate = tickRate;
+        this.tickSeconds = 1.0 / tickRate;
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        this.tickScale = tickSeconds / BASE_TICK_SECONDS;
+        this.map = map;
+        this.player = player;
+        this.bullets = new BulletSystem();
+        this.enemies = new EnemyStore();
+        this.lineOfSight = new LineOfSight(map);
+        this.enemyAi = new EnemyAi(map, lineOfSight);
+        initEnemy();
+    }
+
+    private void initEnemy() {
+        for (LevelEntry spawn : map.getSpawns()) {
+            enemies.spawn(spawn.getX(), spawn.getY());
+        }
+    }
+
+    /**
+     * Advances the simulation by one fixed step.
+     *
+     * @param buttons bitmask of {@link InputAction#mask()} values held during this tick
+     */
+    public void tick(int buttons) {
+        if (gameOver) return;
+
+        TickEvent event = new TickEvent();
+        event.begin();
+        player.savePreviousState();
+        enemies.savePreviousPositions();
+        bullets.savePreviousPositions();
+
+        long time = profiler.begin();
+        handleInput(buttons);
+        time = profiler.lap(FramePhase.INPUT, time);
+        updateEnemies();
+        time = profiler.lap(FramePhase.ENEMIES, time);
+        updateBullets();
+        time = profiler.lap(FramePhase.BULLETS, time);
+        map.updateResidency(player, enemies);
+        profiler.lap(FramePhase.RESIDENCY, time);
+        tickCount++;
+
+        if (event.shouldCommit()) {
+            event.tick = tickCount;
+            event.enemies = enemies.size();
+            event.bullets = bullets.size();
+            event.commit();
+        }
+    }
+
+    private void handleInput(int buttons) {
+        if (InputAction.FORWARD.isSet(buttons)) {
+            moveForward(PLAYER_MOVE_SPEED * tickSeconds);
+        }
+        if (InputAction.BACKWARD.isSet(buttons)) {
+            moveBackward(PLAYER_MOVE_SPEED * tickSeconds);
+        }
+        if (InputAction.TURN_LEFT.isSet(buttons)) {
+            player.rotateLeft(PLAYER_ROTATE_SPEED * tickSeconds);
+        }
+        if (InputAction.TURN_RIGHT.isSet(buttons)) {
+            player.rotateRight(PLAYER_ROTATE_SPEED * tickSeconds);
+        }
+
+        // Fire and use act once per press, not while held
+        int pressed = buttons & ~previousButtons;
+        if (InputAction.FIRE.isSet(pressed)) {
+            shoot();
+        }
+        if (InputAction.USE.isSet(pressed)) {
+            tryOpenDoor();
+        }
+        previousButtons = buttons;
+    }
+
+    private void moveForward(double speed) {
+        player.moveForward(speed, map, enemies.getGrid());
+        checkCollectibles();
+        checkExit();
+    }
+
+    private void moveBackward(double speed) {
+        player.moveBackward(speed, map, enemies.getGrid());
+        checkCollectibles();
+        checkExit();
+    }
+
+    private void shoot() {
+        player.shoot(bullets);
+    }
+
+    private void checkExit() {
+        if (map.isExit((int) player.getPosX(), (int) player.getPosY())) {
+            exitReached = true;
+            message("Level Complete! Proceed to next level..");
+        }
+    }
+
+    private void checkCollectibles() {
+        int px = (int) player.getPosX();
+        int py = (int) player.getPosY();
+
+        if (map.isKey(px, py)) {
+            player.setKeys(player.getKeys() + 1);
+            map.collectItem(px, py);
+            message("Picked up a key! Keys: " + player.getKeys());
+        }
+
+        if (map.isHealth(px, py)) {
+            player.setHealth(Math.min(1.0, player.getHealth() + 0.5));
+            map.collectItem(px, py);
+            message("Picked up a health pack! Health: " + player.getHealth());
+        }
+
+        if (map.isAmmo(px, py)) {
+            player.setAmmo(player.getAmmo() + 5);
+            map.collectItem(px, py);
+            message("Picked up a ammo pack! Ammo: " + player.getAmmo());
+        }
+    }
+
+    private void tryOpenDoor() {
+        int facingX = (int)(player.getPosX() + player.getDirX());
+        int facingY = (int)(player.getPosY() + player.getDirY());
+        if (map.isDoor(facingX, facingY)) {
+            map.openDoor(facingX, facingY);
+        } else if (map.isLockedDoor(facingX, facingY)) {
+            if (player.getKeys() > 0) {
+                map.unlockDoor(facingX, facingY);
+                player.setKeys(player.getKeys() - 1);
+                message("Unlocked a door! Remaining keys: " + player.getKeys());
+            } else {
+                message("Need a key to open this door!");
+            }
+        }
+    }
+
+    public void updateBullets() {
+        bullets.advance(tickScale);
+
+        // Removal swaps the last bullet into slot i, which is then examined in turn
+        int i = 0;
+        while (i < bullets.size()) {
+            double x = bullets.getX(i);
+            double y = bullets.getY(i);
+            int gridX = (int) x;
+            int gridY = (int) y;
+
+            // Remove bullet if it hit a wall or is too far from the player
+            double dx = x - player.getPosX();
+            double dy = y - player.getPosY();
+            if (map.isSolid(gridX, gridY) || dx * dx + dy * dy > square(bullets.getMaxDistance(i))) {
+                bullets.remove(i);
+                continue;
+            }
+
+            if (bullets.getOwner(i) == BulletSystem.OWNER_PLAYER) {
+                // Check collision with an enemy on the bullet's tile
+                int enemy = enemies.getGrid().firstAt(gridX, gridY);
+                if (enemy >= 0) {
+                    enemies.setHealth(enemy, enemies.getHealth(enemy) - player.getDamage());
+                    bullets.remove(i);
+                    continue;
+                }
+            } else {
+                double hitDist = 0.25;
+                if (Math.abs(dx) < hitDist && Math.abs(dy) < hitDist) {
+                    player.takeDamage(0.3);
+                    bullets.remove(i);
+                    if (player.isDead()) {
+                        onGameOver();
+                    }
+                    continue;
+                }
+            }
+            i++;
+        }
+
+        enemies.removeDead();
+    }
+
+    private static double square(double value) {
+        return value * value;
+    }
+
+    public void updateEnemies() {
+        enemyAi.tick(enemies, player, bullets, tickSeconds, tickScale);
+    }
+
+    /**
+     * Hash of everything the simulation evolves: tick count, player, enemies, bullets and map
+     * topology. Two runs from the same map, seed and inputs must end with the same hash.
+     */
+    public long stateHash() {
+        long hash = tickCount;
+        hash = mix(hash, gameOver ? 1 : 0);
+        hash = mix(hash, map.getTopologyVersion());
+        hash = mix(hash, player.getPosX());
+        hash = mix(hash, player.getPosY());
+        hash = mix(hash, player.getDirX());
+        hash = mix(hash, player.getDirY());
+        hash = mix(hash, player.getHealth());
+        hash = mix(hash, player.getAmmo() * 31L + player.getKeys());
+
+        hash = mix(hash, enemies.size());
+        for (int i = 0; i < enemies.size(); i++) {
+            hash = mix(hash, enemies.getX(i));
+            hash = mix(hash, enemies.getY(i));
+            hash = mix(hash, enemies.getHealth(i));
+            hash = mix(hash, enemies.getShootCooldown(i));
+            hash = mix(hash, enemies.getState(i).ordinal());
+        }
+        hash = mix(hash, bullets.size());
+        for (int i = 0; i < bullets.size(); i++) {
+            hash = mix(hash, bullets.getX(i));
+            hash = mix(hash, bullets.getY(i));
+            hash = mix(hash, bullets.getOwner(i));
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, double value) {
+        return mix(hash, Double.doubleToLongBits(value));
+    }
+
+    private static long mix(long hash, long value) {
+        return (hash ^ value) * 0x9E3779B97F4A7C15L + 0x632BE59BD9B4E019L;
+    }
+
+    private void onGameOver() {
+        gameOver = true;
+        message("GAME OVER");
+    }
+
+    private void message(String text) {
+        if (messagesEnabled) System.out.println(text);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.wolfenstein.games;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Pure-Java render target backed by a plain int[] framebuffer, for hosts without a display.
+ * Frames stay in memory; {@link #writePng(Path)} dumps the last presented one.
+ */
+public class HeadlessRenderTarget implements RenderTarget {
+    private final int width;
+    private final int height;
+    private final int[] pixels;
+
+    private long framesPresented;
+
+    public HeadlessRenderTarget(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.pixels = new int[width * height];
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    @Override
+    public void present() {
+        framesPresented++;
+    }
+
+    public long getFramesPresented() {
+        return framesPresented;
+    }
+
+    public void writePng(Path file) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, width, height, pixels, 0, width);
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        ImageIO.write(image, "png", file.toFile());
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.wolfenstein.games;
+
+import com.example.wolfenstein.games.objects.Player;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+import java.util.HashMap;
+import java.util.Objects;
+
+/**
+ * Status bar at the bottom of the screen, kept as a retained off-screen layer.
+ * <p>
+ * The bar is only redrawn (and snapshotted) when one of the Player fields it shows changes;
+ * every other frame it costs a single drawImage.
+ */
+public class HudLayer {
+    public static final int HUD_HEIGHT = 90;
+
+    private static final int SECTION_COUNT = 7; // Level, Score, Lives, Face, Health, Ammo, Weapon
+    private static final int MAX_CACHED_TEXTS = 256;
+
+    private final int screenWidth;
+    private final int screenHeight;
+
+    private final Canvas layerCanvas;
+    private final SnapshotParameters snapshotParameters = new SnapshotParameters();
+    private WritableImage layerImage;
+
+    private final Font font = Font.font("Consolas", 32);
+    // Text metrics for the HUD font, measured once per distinct string
+    private final Text measureText = new Text();
+    private final java.util.Map<String, Double> textWidths = new HashMap<>();
+    private double textHeight = -1;
+
+    private final Image faceImage = loadImage("/com/example/wolfenstein/images/hud/character.jpeg");
+    private final Image weaponImage = loadImage("/com/example/wolfenstein/images/hud/weapon/Pistol.png");
+
+    // Values currently baked into the layer
+    private boolean dirty = true;
+    private int level;
+    private int score;
+    private int lives;
+    private int health;
+    private int ammo;
+
+    public HudLayer(int screenWidth, int screenHeight) {
+        this.screenWidth = screenWidth;
+        this.screenHeight = screenHeight;
+        this.layerCanvas = new Canvas(screenWidth, HUD_HEIGHT);
+        this.measureText.setFont(font);
+    }
+
+    public void render(GraphicsContext gc, Player player) {
+        if (dirty
+                || level != player.getLevel()
+                || score != player.getScore()
+                || lives != player.getLives()
+                || health != (int) player.getHealth()
+                || ammo != player.getAmmo()) {
+            level = player.getLevel();
+            score = player.getScore();
+            lives = player.getLives();
+            health = (int) player.getHealth();
+            ammo = player.getAmmo();
+            redraw();
+            dirty = false;
+        }
+        gc.drawImage(layerImage, 0, screenHeight - HUD_HEIGHT);
+    }
+
+    private void redraw() {
+        GraphicsContext gc = layerCanvas.getGraphicsContext2D();
+        int sectionWidth = screenWidth / SECTION_COUNT;
+
+        // Draw blue HUD background
+        gc.setFill(Color.rgb(11, 39, 132));
+        gc.fillRect(0, 0, screenWidth, HUD_HEIGHT);
+
+        // Draw box borders
+        gc.setStroke(Color.rgb(190, 208, 255));
+        gc.setLineWidth(3);
+        for (int i = 0; i < SECTION_COUNT; i++) {
+            gc.strokeRect(i * sectionWidth, 0, sectionWidth, HUD_HEIGHT);
+        }
+        gc.setLineWidth(1);
+
+        gc.setFont(font);
+        gc.setFill(Color.WHITE);
+
+        double boxCenterY = HUD_HEIGHT / 2.2;
+
+        // 1. Level
+        drawCenteredText(gc, "LEVEL", sectionWidth * 0.5, 32);
+        drawCenteredText(gc, String.valueOf(level), sectionWidth * 0.5, boxCenterY + 18);
+
+        // 2. Score
+        drawCenteredText(gc, "SCORE", sectionWidth * 1.5, 32);
+        drawCenteredText(gc, String.format("%06d", score), sectionWidth * 1.5, boxCenterY + 18);
+
+        // 3. Lives
+        drawCenteredText(gc, "LIVES", sectionWidth * 2.5, 32);
+        drawCenteredText(gc, String.valueOf(lives), sectionWidth * 2.5, boxCenterY + 18);
+
+        // 4. Face (center image in box)
+        if (faceImage != null) {
+            double faceSize = HUD_HEIGHT - 18;
+            double faceX = sectionWidth * 3 + (sectionWidth - faceSize) / 2;
+            double faceY = (HUD_HEIGHT - faceSize) / 2;
+            gc.drawImage(faceImage, faceX, faceY, faceSize, faceSize);
+        } else {
+            // fallback: draw a brown box
+            gc.setFill(Color.BROWN);
+            gc.fillRect(sectionWidth * 3 + 8, 8, sectionWidth - 16, HUD_HEIGHT - 16);
+        }
+
+        // 5. Health
+        gc.setFill(Color.WHITE);
+        drawCenteredText(gc, "HEALTH", sectionWidth * 4.5, 32);
+        drawCenteredText(gc, String.format("%3d%%", health), sectionWidth * 4.5, boxCenterY + 18);
+
+        // 6. Ammo
+        drawCenteredText(gc, "AMMO", sectionWidth * 5.5, 32);
+        drawCenteredText(gc, String.valueOf(ammo), sectionWidth * 5.5, boxCenterY + 18);
+
+        // 7. Weapon (center image in last box)
+        if (weaponImage != null) {
+            double weaponSize = HUD_HEIGHT - 24; // a bit smaller for padding
+            double weaponX = sectionWidth * 6 + (sectionWidth - weaponSize) / 2;
+            double weaponY = (HUD_HEIGHT - weaponSize) / 2;
+            gc.drawImage(weaponImage, weaponX, weaponY, weaponSize, weaponSize);
+        } else {
+            // fallback: draw a black gun shape
+            gc.setStroke(Color.BLACK);
+            gc.setLineWidth(6);
+            double gunCenterX = sectionWidth * 6 + sectionWidth / 2.0;
+            double gunY = HUD_HEIGHT / 2.0;
+            gc.strokeLine(gunCenterX - 24, gunY - 5, gunCenterX + 28, gunY - 5);
+            gc.strokeLine(gunCenterX + 8, gunY - 17, gunCenterX + 8, gunY + 15);
+            gc.strokeLine(gunCenterX - 6, gunY + 10, gunCenterX + 22, gunY + 16);
+            gc.setLineWidth(1);
+        }
+
+        layerImage = layerCanvas.snapshot(snapshotParameters, layerImage);
+    }
+
+    private void drawCenteredText(GraphicsContext gc, String text, double centerX, double centerY) {
+        Double textWidth = textWidths.get(text);
+        if (textWidth == null) {
+            if (textWidths.size() >= MAX_CACHED_TEXTS) textWidths.clear();
+            measureText.setText(text);
+            textWidth = measureText.getLayoutBounds().getWidth();
+            textWidths.put(text, textWidth);
+            if (textHeight < 0) textHeight = measureText.getLayoutBounds().getHeight();
+        }
+        gc.fillText(text, centerX - textWidth / 2, centerY + textHeight / 4);
+    }
+
+    static Image loadImage(String path) {
+        try {
+            return new Image(Objects.requireNonNull(HudLayer.class.getResourceAsStream(path)));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
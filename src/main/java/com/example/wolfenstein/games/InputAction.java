@@ -0,0 +1,22 @@
+package com.example.wolfenstein.games;
+
+/**
+ * Player actions sampled once per simulation tick. A tick's input is a bitmask of
+ * {@link #mask()} values, which keeps {@link GameWorld} independent of the input device.
+ */
+public enum InputAction {
+    FORWARD,
+    BACKWARD,
+    TURN_LEFT,
+    TURN_RIGHT,
+    FIRE,
+    USE;
+
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    public boolean isSet(int buttons) {
+        return (buttons & mask()) != 0;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.wolfenstein.games;
+
+import java.util.Arrays;
+
+/**
+ * Collects the buttons of every tick of a running {@link GameWorld} for an
+ * {@link InputRecording}. Recording is a single array store per tick.
+ */
+public class InputRecorder {
+    private final double tickRate;
+    private final long seed;
+    private final long mapHash;
+
+    private byte[] buttons = new byte[4096];
+    private int tickCount;
+
+    /**
+     * Must be created before the world's first tick, while the map is still untouched.
+     */
+    public InputRecorder(GameWorld world) {
+        this.tickRate = world.getTickRate();
+        this.seed = world.getSeed();
+        this.mapHash = world.getMap().contentHash();
+    }
+
+    public void record(int buttonMask) {
+        if (tickCount == buttons.length) {
+            buttons = Arrays.copyOf(buttons, tickCount * 2);
+        }
+        buttons[tickCount++] = (byte) buttonMask;
+    }
+
+    public int getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * The session so far, ending in the state {@code world} is in now.
+     */
+    public InputRecording finish(GameWorld world) {
+        return new InputRecording(tickRate, seed, mapHash, world.stateHash(), Arrays.copyOf(buttons, tickCount));
+    }
+}
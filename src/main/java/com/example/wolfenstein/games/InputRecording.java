@@ -0,0 +1,168 @@
+package com.example.wolfenstein.games;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * The per-tick input of one game session, enough to replay it exactly.
+ * <p>
+ * Binary format, little-endian:
+ * <pre>
+ *  0  int    magic "WREC"
+ *  4  short  version
+ *  6  short  header size in bytes
+ *  8  double tick rate
+ * 16  long   world seed
+ * 24  long   {@link com.example.wolfenstein.games.objects.Map#contentHash() map hash} at the start
+ * 32  int    tick count
+ * 36  int    run count
+ * 40  long   {@link GameWorld#stateHash() world state hash} after the last tick
+ * </pre>
+ * followed by the runs: a byte of {@link InputAction} buttons and a varint number of consecutive
+ * ticks they were held for. Input rarely changes from one tick to the next, so a session costs a
+ * few bytes per key press rather than a byte per tick.
+ */
+public final class InputRecording {
+    public static final int MAGIC = 'W' | 'R' << 8 | 'E' << 16 | 'C' << 24;
+    // 2: the player's direction is renormalised periodically, so older sessions no longer replay
+    // 3: enemies start with no shot cooldown again
+    public static final int VERSION = 3;
+
+    private static final int HEADER_SIZE = 48;
+
+    private final double tickRate;
+    private final long seed;
+    private final long mapHash;
+    private final long finalStateHash;
+    // Buttons per tick, decoded
+    private final byte[] buttons;
+
+    public InputRecording(double tickRate, long seed, long mapHash, long finalStateHash, byte[] buttons) {
+        this.tickRate = tickRate;
+        this.seed = seed;
+        this.mapHash = mapHash;
+        this.finalStateHash = finalStateHash;
+        this.buttons = buttons;
+    }
+
+    public double getTickRate() {
+        return tickRate;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getMapHash() {
+        return mapHash;
+    }
+
+    public long getFinalStateHash() {
+        return finalStateHash;
+    }
+
+    public int getTickCount() {
+        return buttons.length;
+    }
+
+    /**
+     * {@link InputAction} bitmask held during {@code tick}.
+     */
+    public int getButtons(int tick) {
+        return buttons[tick] & 0xFF;
+    }
+
+    public static InputRecording read(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException(path + " is not an input recording");
+        }
+        int version = buffer.getShort(4);
+        if (version != VERSION) {
+            throw new IOException(path + " has unsupported recording version " + version);
+        }
+
+        double tickRate = buffer.getDouble(8);
+        long seed = buffer.getLong(16);
+        long mapHash = buffer.getLong(24);
+        int tickCount = buffer.getInt(32);
+        int runCount = buffer.getInt(36);
+        long finalStateHash = buffer.getLong(40);
+        int headerSize = buffer.getShort(6);
+        if (tickRate <= 0 || tickCount < 0 || runCount < 0 || headerSize < HEADER_SIZE || headerSize > buffer.limit()) {
+            throw new IOException(path + " has an invalid header");
+        }
+
+        byte[] buttons = new byte[tickCount];
+        buffer.position(headerSize);
+        int tick = 0;
+        try {
+            for (int run = 0; run < runCount; run++) {
+                byte held = buffer.get();
+                int length = readVarInt(buffer);
+                if (length <= 0 || length > tickCount - tick) {
+                    throw new IOException(path + " has a bad run length " + length + " at tick " + tick);
+                }
+                Arrays.fill(buttons, tick, tick + length, held);
+                tick += length;
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException(path + " is truncated", e);
+        }
+        if (tick != tickCount) {
+            throw new IOException(path + " has input for " + tick + " of " + tickCount + " ticks");
+        }
+        return new InputRecording(tickRate, seed, mapHash, finalStateHash, buttons);
+    }
+
+    public void write(Path path) throws IOException {
+        // Worst case: a run per tick, one button byte and a one-byte length each
+        ByteBuffer body = ByteBuffer.allocate(buttons.length * 2 + 16).order(ByteOrder.LITTLE_ENDIAN);
+        int runCount = 0;
+        for (int start = 0; start < buttons.length; ) {
+            int end = start + 1;
+            while (end < buttons.length && buttons[end] == buttons[start]) end++;
+            body.put(buttons[start]);
+            writeVarInt(body, end - start);
+            runCount++;
+            start = end;
+        }
+        body.flip();
+
+        ByteBuffer file = ByteBuffer.allocate(HEADER_SIZE + body.remaining()).order(ByteOrder.LITTLE_ENDIAN);
+        file.putInt(MAGIC)
+                .putShort((short) VERSION)
+                .putShort((short) HEADER_SIZE)
+                .putDouble(tickRate)
+                .putLong(seed)
+                .putLong(mapHash)
+                .putInt(buttons.length)
+                .putInt(runCount)
+                .putLong(finalStateHash)
+                .put(body);
+        Files.write(path, file.array());
+    }
+
+    private static void writeVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int readVarInt(ByteBuffer buffer) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed run length");
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.wolfenstein.games;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of durations in nanoseconds.
+ * <p>
+ * Buckets are log-linear: values below 16 get one bucket each, and every power of two above
+ * that is split into 16 equal buckets, so any recorded value is known to within about 6%.
+ * {@link #record} is a couple of atomic adds and never allocates; a reader empties the
+ * histogram with {@link #drainInto} while writers keep going, and each concurrent sample lands
+ * in either the drained or the next interval.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Values up to 2^40 ns (about 18 minutes); longer ones go into the last bucket
+    private static final int MAX_EXPONENT = 40;
+
+    public static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(bucket(nanos));
+        long current = max.get();
+        while (nanos > current && !max.compareAndSet(current, nanos)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Moves all counts into {@code into} (of length {@link #BUCKET_COUNT}), leaving this
+     * histogram empty.
+     *
+     * @return the largest value recorded since the last drain, 0 if none
+     */
+    public long drainInto(long[] into) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            into[i] = counts.getAndSet(i, 0);
+        }
+        return max.getAndSet(0);
+    }
+
+    /**
+     * Upper bound of the bucket holding the {@code quantile} (0..1) of the drained counts, or 0
+     * when they are empty.
+     */
+    public static long valueAtQuantile(long[] counts, double quantile) {
+        long total = 0;
+        for (long count : counts) total += count;
+        if (total == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return bucketUpperBound(i);
+        }
+        return bucketUpperBound(counts.length - 1);
+    }
+
+    public static long totalCount(long[] counts) {
+        long total = 0;
+        for (long count : counts) total += count;
+        return total;
+    }
+
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) return BUCKET_COUNT - 1;
+        int shift = exponent - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    static long bucketUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        long sub = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.wolfenstein.games;
+
+import com.example.wolfenstein.games.objects.Map;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tile-to-tile visibility for enemy AI.
+ * <p>
+ * {@link #isClear} walks the exact set of grid cells crossed by the segment between two tile
+ * centres (an integer DDA), so the cost is proportional to the tiles crossed and a line that
+ * passes exactly through a wall corner is treated as blocked.
+ * <p>
+ * Queries against the current target tile (the player's) are cached per source tile. The
+ * cache is dropped only when the target moves to another tile or the map topology changes,
+ * so all enemies standing on the same tile share one traversal.
+ * <p>
+ * {@link #canSeeTarget} may be called from several threads at once (the parallel AI think
+ * phase); {@link #setTarget} must not run concurrently with it. Cache slots are read and written
+ * whole with opaque access, so a racing thread at worst repeats a traversal.
+ */
+public class LineOfSight {
+    private static final int CACHE_SIZE = 4096;
+    private static final VarHandle CACHE = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final Map map;
+
+    // Direct-mapped cache entries: generation << 33 | sourceTileKey << 1 | visible
+    private final long[] cache = new long[CACHE_SIZE];
+    private long generation = 1;
+
+    private int targetX = Integer.MIN_VALUE;
+    private int targetY = Integer.MIN_VALUE;
+    private int mapVersion;
+
+    private final LongAdder checksPerformed = new LongAdder();
+
+    public LineOfSight(Map map) {
+        this.map = map;
+        this.mapVersion = map.getTopologyVersion();
+    }
+
+    /**
+     * Sets the tile that {@link #canSeeTarget} tests against, typically once per tick with the
+     * player's tile. Cached results survive as long as neither the tile nor the map changes.
+     */
+    public void setTarget(int x, int y) {
+        int version = map.getTopologyVersion();
+        if (x != targetX || y != targetY || version != mapVersion) {
+            targetX = x;
+            targetY = y;
+            mapVersion = version;
+            generation++;
+        }
+    }
+
+    public boolean canSeeTarget(int x, int y) {
+        long key = ((long) (x & 0xFFFF) << 16) | (y & 0xFFFF);
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 52) & (CACHE_SIZE - 1);
+        long tag = (generation << 33) | (key << 1);
+
+        long entry = (long) CACHE.getOpaque(cache, slot);
+        if ((entry & ~1L) == tag) {
+            return (entry & 1L) != 0;
+        }
+
+        checksPerformed.increment();
+        boolean visible = isClear(map, x, y, targetX, targetY);
+        CACHE.setOpaque(cache, slot, tag | (visible ? 1L : 0L));
+        return visible;
+    }
+
+    /**
+     * Number of uncached grid traversals done so far.
+     */
+    public long getChecksPerformed() {
+        return checksPerformed.sum();
+    }
+
+    /**
+     * Whether the segment between the centres of tiles (x0, y0) and (x1, y1) crosses no wall.
+     */
+    public static boolean isClear(Map map, int x0, int y0, int x1, int y1) {
+        int nx = Math.abs(x1 - x0);
+        int ny = Math.abs(y1 - y0);
+        int stepX = x1 > x0 ? 1 : -1;
+        int stepY = y1 > y0 ? 1 : -1;
+
+        int x = x0;
+        int y = y0;
+        for (int ix = 0, iy = 0; ix < nx || iy < ny; ) {
+            // Compares where the segment crosses the next vertical and horizontal grid lines
+            long decision = (1 + 2L * ix) * ny - (1 + 2L * iy) * nx;
+            if (decision == 0) {
+                // Passes exactly through a corner: blocked if either side is a wall
+                if (map.blocksSight(x + stepX, y) || map.blocksSight(x, y + stepY)) return false;
+                x += stepX;
+                y += stepY;
+                ix++;
+                iy++;
+            } else if (decision < 0) {
+                x += stepX;
+                ix++;
+            } else {
+                y += stepY;
+                iy++;
+            }
+            if (map.blocksSight(x, y)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.wolfenstein.games;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+
+/**
+ * Draws the {@link FrameProfiler} summary in the top-left corner. The text is formatted by the
+ * profiler's reporting thread, so a frame only draws strings that already exist.
+ */
+public class ProfilerOverlay {
+    private static final double LINE_HEIGHT = 16;
+    private static final double PADDING = 6;
+
+    private final Font font = Font.font("Consolas", 13);
+    private final Color background = Color.rgb(0, 0, 0, 0.6);
+
+    public void render(GraphicsContext gc, FrameProfiler profiler) {
+        render(gc, profiler, "");
+    }
+
+    /**
+     * @param status extra line shown below the timings, e.g. the dynamic resolution state; empty for none
+     */
+    public void render(GraphicsContext gc, FrameProfiler profiler, String status) {
+        String[] lines = profiler.getLines();
+        int lineCount = Math.max(1, lines.length) + (status.isEmpty() ? 0 : 1);
+        double height = lineCount * LINE_HEIGHT + PADDING * 2;
+
+        gc.setFill(background);
+        gc.fillRect(0, 0, 400, height);
+        gc.setFont(font);
+        gc.setFill(Color.WHITE);
+        if (lines.length == 0) {
+            gc.fillText("profiling...", PADDING, PADDING + LINE_HEIGHT - 4);
+        }
+        for (int i = 0; i < lines.length; i++) {
+            gc.fillText(lines[i], PADDING, PADDING + (i + 1) * LINE_HEIGHT - 4);
+        }
+        if (!status.isEmpty()) {
+            gc.fillText(status, PADDING, PADDING + lineCount * LINE_HEIGHT - 4);
+        }
+    }
+}
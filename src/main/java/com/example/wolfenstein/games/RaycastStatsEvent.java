@@ -0,0 +1,73 @@
+package com.example.wolfenstein.games;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * Periodic JFR event with the renderer's and the AI's work counters over the last period.
+ * <p>
+ * The counters are kept anyway; the hook that turns them into an event only runs on the
+ * recorder's thread while the event is enabled, so there is no cost outside a recording.
+ */
+@Name("com.example.wolfenstein.RaycastStats")
+@Label("Raycast Statistics")
+@Category("Wolfenstein")
+@Description("Wall raycast and line-of-sight work since the previous event")
+@Enabled(false)
+@Period("1 s")
+@StackTrace(false)
+public class RaycastStatsEvent extends jdk.jfr.Event {
+    @Label("Rays Cast")
+    public long rays;
+
+    @Label("DDA Steps")
+    public long ddaSteps;
+
+    @Label("Average Steps per Ray")
+    public double stepsPerRay;
+
+    @Label("Line of Sight Checks")
+    public long lineOfSightChecks;
+
+    /**
+     * Starts emitting the event for one renderer and world. Pass the result to
+     * {@link #unregister} when the game ends.
+     */
+    public static Runnable register(Renderer renderer, LineOfSight lineOfSight) {
+        Runnable hook = new Runnable() {
+            private long lastRays = renderer.getRaysCast();
+            private long lastSteps = renderer.getDdaSteps();
+            private long lastChecks = lineOfSight.getChecksPerformed();
+
+            @Override
+            public void run() {
+                long rays = renderer.getRaysCast();
+                long steps = renderer.getDdaSteps();
+                long checks = lineOfSight.getChecksPerformed();
+
+                RaycastStatsEvent event = new RaycastStatsEvent();
+                event.rays = rays - lastRays;
+                event.ddaSteps = steps - lastSteps;
+                event.stepsPerRay = event.rays > 0 ? (double) event.ddaSteps / event.rays : 0;
+                event.lineOfSightChecks = checks - lastChecks;
+                event.commit();
+
+                lastRays = rays;
+                lastSteps = steps;
+                lastChecks = checks;
+            }
+        };
+        FlightRecorder.addPeriodicEvent(RaycastStatsEvent.class, hook);
+        return hook;
+    }
+
+    public static void unregister(Runnable hook) {
+        FlightRecorder.removePeriodicEvent(hook);
+    }
+}
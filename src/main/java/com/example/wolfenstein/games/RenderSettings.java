@@ -0,0 +1,38 @@
+package com.example.wolfenstein.games;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Tunables for {@link Renderer}. Defaults can be overridden with system properties,
+ * e.g. {@code -Dwolf.render.threads=16 -Dwolf.render.bands=64 -Dwolf.render.dynamic=true}.
+ */
+@Getter
+@Setter
+public class RenderSettings {
+    // Raycast into an int[] framebuffer; false falls back to per-column Canvas calls
+    private boolean frameBufferEnabled = !Boolean.getBoolean("wolf.render.canvas");
+
+    // Worker threads for the column-parallel raycast, 1 casts on the calling thread
+    private int raycastThreads = Integer.getInteger("wolf.render.threads", Runtime.getRuntime().availableProcessors());
+
+    // Number of column bands the screen is split into, 0 picks four bands per thread
+    private int raycastBands = Integer.getInteger("wolf.render.bands", 0);
+
+    // Reuse the last frame's walls and zBuffer while the camera and map are unchanged
+    private boolean temporalReuse = Boolean.parseBoolean(System.getProperty("wolf.render.reuse", "true"));
+
+    // Sample distant walls from smaller mip levels of their texture
+    private boolean mipmapping = Boolean.parseBoolean(System.getProperty("wolf.render.mipmaps", "true"));
+
+    // Fraction of the screen's columns and rows that is rendered and then upscaled, 0.25 to 1
+    private double resolutionScale = Double.parseDouble(System.getProperty("wolf.render.scale", "1"));
+
+    // Let a ResolutionController move resolutionScale to keep frames within frameBudgetMillis
+    private boolean dynamicResolution = Boolean.getBoolean("wolf.render.dynamic");
+
+    private double frameBudgetMillis = Double.parseDouble(System.getProperty("wolf.render.budgetMs", "16.6"));
+
+    // Lowest scale the ResolutionController may pick
+    private double minResolutionScale = Double.parseDouble(System.getProperty("wolf.render.minScale", "0.25"));
+}
@@ -0,0 +1,18 @@
+package com.example.wolfenstein.games;
+
+/**
+ * Destination of a software-rendered frame.
+ * <p>
+ * {@link Renderer} writes opaque ARGB pixels, row-major, into {@link #getPixels()} and calls
+ * {@link #present()} once the frame is complete. Implementations decide what presenting means:
+ * a blit to a JavaFX canvas, or nothing at all for headless runs.
+ */
+public interface RenderTarget {
+    int getWidth();
+
+    int getHeight();
+
+    int[] getPixels();
+
+    void present();
+}
@@ -4,25 +4,559 @@ import com.example.wolfenstein.games.objects.*;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
 import javafx.scene.paint.Color;
-import javafx.scene.text.Font;
-import javafx.scene.text.Text;
 
-import java.util.HashMap;
-import java.util.List;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
 
 public class Renderer {
+    // Lowest resolution scale the framebuffer path renders at
+    public static final double MIN_RESOLUTION_SCALE = 0.25;
+
     private final int screenWidth;
     private final int screenHeight;
 
-    private static final java.util.Map<Integer, Image> wallTextures = new HashMap<>();
+    private static final int TEXTURE_SIZE = WallTextureAtlas.TEXTURE_SIZE;
+
+    private static final int SKY_COLOR = argb(Color.LIGHTBLUE);
+    private static final int FLOOR_COLOR = argb(Color.DARKGRAY);
+    private static final int DOOR_COLOR = argb(Color.SADDLEBROWN);
+    private static final int LOCKED_DOOR_COLOR = argb(Color.PURPLE);
+    private static final int UNKNOWN_WALL_COLOR = argb(Color.RED);
+    private static final int UNKNOWN_WALL_SIDE_COLOR = argb(Color.DARKRED);
+
+    // Scratch buffers, allocated once and reused every frame
+    private final double[] zBuffer;
+    // Pixels being rendered, the target's own or lowResBuffer's, set at the start of each frame
+    private int[] frameBuffer;
+
+    // Resolution the framebuffer path casts and draws at, screen size scaled by the settings
+    private int viewWidth;
+    private int viewHeight;
+    // Frame at the reduced resolution, upscaled into the target; allocated once it is first used
+    private int[] lowResBuffer;
+    // Low-res column sampled by each screen column when upscaling
+    private final int[] upscaleColumns;
+
+    // Per column of the viewport: camera-plane coordinate from -1 to 1, rebuilt with the viewport
+    private final double[] cameraXs;
+    // Per column: ray direction and DDA step lengths, rebuilt when the camera turns
+    private final double[] rayDirXs;
+    private final double[] rayDirYs;
+    private final double[] deltaDistXs;
+    private final double[] deltaDistYs;
+    // Camera the ray tables were built for; NaN forces a rebuild
+    private double rayTableDirX = Double.NaN;
+    private double rayTableDirY;
+    private double rayTablePlaneX;
+    private double rayTablePlaneY;
+    private int rayTableBuilds;
+
+    // Walls, sky and floor of the last cast frame, before sprites; allocated once reuse is enabled
+    private int[] wallLayer;
+    // What the wall layer was cast for; wallLayerMap == null marks it invalid
+    private Map wallLayerMap;
+    private int wallLayerTileVersion;
+    private int wallLayerWidth;
+    private int wallLayerHeight;
+    private boolean wallLayerMipmapping;
+    private double wallLayerPosX;
+    private double wallLayerPosY;
+    private double wallLayerDirX;
+    private double wallLayerDirY;
+    private double wallLayerPlaneX;
+    private double wallLayerPlaneY;
+    private int wallLayerReuses;
+    // JavaFX target used when render is called with a GraphicsContext
+    private FxRenderTarget fxTarget;
+
+    private final RenderSettings settings;
+
+    private final WallTextureAtlas wallAtlas;
+    // Enemies and bullets of the frame, drawn after the walls
+    private final SpriteBatch sprites;
+    // Images for the Canvas fallback, indexed by tile id and only loaded once that path is used
+    private Image[] wallImages;
+
+    // Weapon sprite and HUD are only created once the JavaFX path asks for them
+    private Image weaponImage;
+    private boolean weaponImageLoaded;
+    private HudLayer hud;
+
+    // Worker pool for the column-parallel raycast, rebuilt when the thread count setting changes
+    private ForkJoinPool raycastPool;
+    private int raycastPoolThreads;
+
+    // Work counters since the renderer was created, summed over all raycast bands
+    private final LongAdder ddaSteps = new LongAdder();
+    private final LongAdder raysCast = new LongAdder();
+
+    // Camera pose for the frame being cast, shared read-only by all raycast bands
+    private double camPosX;
+    private double camPosY;
+    private double camDirX;
+    private double camDirY;
+    private double camPlaneX;
+    private double camPlaneY;
 
     public Renderer(int screenWidth, int screenHeight) {
+        this(screenWidth, screenHeight, new RenderSettings());
+    }
+
+    public Renderer(int screenWidth, int screenHeight, RenderSettings settings) {
         this.screenWidth = screenWidth;
         this.screenHeight = screenHeight;
+        this.settings = settings;
+        this.wallAtlas = WallTextureAtlas.load();
+        this.sprites = new SpriteBatch(screenWidth, screenHeight, SpriteAtlas.create());
+
+        this.zBuffer = new double[screenWidth];
+        this.upscaleColumns = new int[screenWidth];
+        this.cameraXs = new double[screenWidth];
+        this.rayDirXs = new double[screenWidth];
+        this.rayDirYs = new double[screenWidth];
+        this.deltaDistXs = new double[screenWidth];
+        this.deltaDistYs = new double[screenWidth];
+    }
+
+    public RenderSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Grid cells stepped through by all wall rays cast so far.
+     */
+    public long getDdaSteps() {
+        return ddaSteps.sum();
+    }
+
+    public long getRaysCast() {
+        return raysCast.sum();
+    }
+
+    /**
+     * Width the last framebuffer frame was rendered at before upscaling.
+     */
+    public int getRenderWidth() {
+        return viewWidth;
+    }
+
+    public int getRenderHeight() {
+        return viewHeight;
+    }
+
+    /**
+     * Times the per-column ray directions were recomputed; frames with an unchanged camera
+     * direction reuse the last ones.
+     */
+    public int getRayTableBuilds() {
+        return rayTableBuilds;
     }
 
-    public void render(GraphicsContext gc, Player player, Map map, List<Bullet> bullets, List<Bullet> enemyBullets,List<Enemy> enemies) {
+    /**
+     * Frames that copied the previous frame's walls instead of casting them.
+     */
+    public int getWallLayerReuses() {
+        return wallLayerReuses;
+    }
+
+    /**
+     * Sprites that covered at least one pixel in the last framebuffer frame.
+     */
+    public int getSpritesDrawn() {
+        return sprites.getDrawn();
+    }
+
+    public void render(GraphicsContext gc, Player player, Map map, BulletSystem bullets, EnemyStore enemies) {
+        render(gc, player, map, bullets, enemies, 1.0);
+    }
+
+    /**
+     * @param alpha how far the frame lies between the previous and the current simulation tick,
+     *              used to interpolate the camera and sprite positions
+     */
+    public void render(GraphicsContext gc, Player player, Map map, BulletSystem bullets, EnemyStore enemies, double alpha) {
+        if (settings.isFrameBufferEnabled()) {
+            if (fxTarget == null || fxTarget.getGraphicsContext() != gc) {
+                fxTarget = new FxRenderTarget(gc, screenWidth, screenHeight);
+            }
+            render(fxTarget, player, map, bullets, enemies, alpha);
+        } else {
+            renderWithCanvas(gc, player, map, bullets, enemies);
+        }
+    }
+
+    /**
+     * Raycasts the scene into the target's int[] framebuffer and presents it. This is the
+     * shared path for both the JavaFX window and headless runs.
+     */
+    public void render(RenderTarget target, Player player, Map map, BulletSystem bullets, EnemyStore enemies) {
+        render(target, player, map, bullets, enemies, 1.0);
+    }
+
+    public void render(RenderTarget target, Player player, Map map, BulletSystem bullets, EnemyStore enemies, double alpha) {
+        if (target.getWidth() != screenWidth || target.getHeight() != screenHeight) {
+            throw new IllegalArgumentException("Render target is " + target.getWidth() + "x" + target.getHeight()
+                    + ", renderer is " + screenWidth + "x" + screenHeight);
+        }
+        updateViewport();
+        boolean upscale = viewWidth != screenWidth || viewHeight != screenHeight;
+        int[] pixels = upscale ? lowResBuffer : target.getPixels();
+        frameBuffer = pixels;
+
+        camPosX = lerp(player.getPrevPosX(), player.getPosX(), alpha);
+        camPosY = lerp(player.getPrevPosY(), player.getPosY(), alpha);
+        camDirX = lerp(player.getPrevDirX(), player.getDirX(), alpha);
+        camDirY = lerp(player.getPrevDirY(), player.getDirY(), alpha);
+        camPlaneX = lerp(player.getPrevPlaneX(), player.getPlaneX(), alpha);
+        camPlaneY = lerp(player.getPrevPlaneY(), player.getPlaneY(), alpha);
+
+        if (settings.isTemporalReuse() && wallLayerMatches(map)) {
+            // Nothing the walls depend on changed: the zBuffer still holds, only sprites are redrawn
+            System.arraycopy(wallLayer, 0, pixels, 0, viewWidth * viewHeight);
+            wallLayerReuses++;
+        } else {
+            // Draw sky and floor
+            int halfScreen = viewWidth * (viewHeight / 2);
+            Arrays.fill(pixels, 0, halfScreen, SKY_COLOR);
+            Arrays.fill(pixels, halfScreen, viewWidth * viewHeight, FLOOR_COLOR);
+
+            updateRayTables();
+            castWalls(map);
+            saveWallLayer(map, pixels);
+        }
+
+        // Skip sprites the PVS says cannot be seen from the camera's tile
+        PotentiallyVisibleSet visibility = map.getVisibility();
+        int camTileX = (int) camPosX;
+        int camTileY = (int) camPosY;
+
+        sprites.begin(camPosX, camPosY, camDirX, camDirY, camPlaneX, camPlaneY);
+        for (int i = 0; i < enemies.size(); i++) {
+            double x = enemies.getX(i);
+            double y = enemies.getY(i);
+            if (!visibility.isVisibleNear(camTileX, camTileY, (int) x, (int) y)) continue;
+            sprites.add(lerp(enemies.getPrevX(i), x, alpha), lerp(enemies.getPrevY(i), y, alpha), SpriteAtlas.ENEMY);
+        }
+        for (int i = 0; i < bullets.size(); i++) {
+            double x = bullets.getX(i);
+            double y = bullets.getY(i);
+            if (!visibility.isVisibleNear(camTileX, camTileY, (int) x, (int) y)) continue;
+            int sprite = bullets.getOwner(i) == BulletSystem.OWNER_PLAYER ? SpriteAtlas.PLAYER_BULLET : SpriteAtlas.ENEMY_BULLET;
+            sprites.add(lerp(bullets.getPrevX(i), x, alpha), lerp(bullets.getPrevY(i), y, alpha), sprite);
+        }
+        sprites.draw(pixels, zBuffer);
+
+        if (upscale) {
+            upscale(pixels, target.getPixels());
+        }
+        target.present();
+    }
+
+    /**
+     * Picks up a changed {@link RenderSettings#getResolutionScale() resolution scale}. Columns and
+     * rows are scaled alike so pixels stay square.
+     */
+    private void updateViewport() {
+        double scale = Math.clamp(settings.getResolutionScale(), MIN_RESOLUTION_SCALE, 1.0);
+        int width = Math.max(1, (int) Math.round(screenWidth * scale));
+        int height = Math.max(2, (int) Math.round(screenHeight * scale));
+        if (width == viewWidth && height == viewHeight) return;
+
+        viewWidth = width;
+        viewHeight = height;
+        sprites.setViewport(width, height);
+        for (int x = 0; x < screenWidth; x++) {
+            upscaleColumns[x] = x * width / screenWidth;
+        }
+        for (int x = 0; x < width; x++) {
+            cameraXs[x] = 2 * x / (double) width - 1;
+        }
+        rayTableDirX = Double.NaN;
+        if (lowResBuffer == null && (width != screenWidth || height != screenHeight)) {
+            lowResBuffer = new int[screenWidth * screenHeight];
+        }
+    }
+
+    private boolean wallLayerMatches(Map map) {
+        return wallLayerMap == map && wallLayerTileVersion == map.getTileVersion()
+                && wallLayerWidth == viewWidth && wallLayerHeight == viewHeight
+                && wallLayerMipmapping == settings.isMipmapping()
+                && wallLayerPosX == camPosX && wallLayerPosY == camPosY
+                && wallLayerDirX == camDirX && wallLayerDirY == camDirY
+                && wallLayerPlaneX == camPlaneX && wallLayerPlaneY == camPlaneY;
+    }
+
+    private void saveWallLayer(Map map, int[] pixels) {
+        if (!settings.isTemporalReuse()) {
+            wallLayerMap = null;
+            return;
+        }
+        if (wallLayer == null) {
+            wallLayer = new int[screenWidth * screenHeight];
+        }
+        System.arraycopy(pixels, 0, wallLayer, 0, viewWidth * viewHeight);
+        wallLayerMap = map;
+        wallLayerTileVersion = map.getTileVersion();
+        wallLayerWidth = viewWidth;
+        wallLayerHeight = viewHeight;
+        wallLayerMipmapping = settings.isMipmapping();
+        wallLayerPosX = camPosX;
+        wallLayerPosY = camPosY;
+        wallLayerDirX = camDirX;
+        wallLayerDirY = camDirY;
+        wallLayerPlaneX = camPlaneX;
+        wallLayerPlaneY = camPlaneY;
+    }
+
+    /**
+     * Recomputes the ray of every column, unless the camera's direction and plane are the ones
+     * the tables were built for. Moving without turning keeps the rays, only their origin changes.
+     */
+    private void updateRayTables() {
+        if (camDirX == rayTableDirX && camDirY == rayTableDirY
+                && camPlaneX == rayTablePlaneX && camPlaneY == rayTablePlaneY) {
+            return;
+        }
+        rayTableDirX = camDirX;
+        rayTableDirY = camDirY;
+        rayTablePlaneX = camPlaneX;
+        rayTablePlaneY = camPlaneY;
+        rayTableBuilds++;
+
+        for (int x = 0; x < viewWidth; x++) {
+            double cameraX = cameraXs[x];
+            double rayDirX = camDirX + camPlaneX * cameraX;
+            double rayDirY = camDirY + camPlaneY * cameraX;
+            rayDirXs[x] = rayDirX;
+            rayDirYs[x] = rayDirY;
+            deltaDistXs[x] = (rayDirX == 0) ? 1e30 : Math.abs(1 / rayDirX);
+            deltaDistYs[x] = (rayDirY == 0) ? 1e30 : Math.abs(1 / rayDirY);
+        }
+    }
+
+    /**
+     * Nearest-neighbour upscale of the low-res frame to the full screen. A screen row that
+     * samples the same low-res row as the one above it is copied from there.
+     */
+    private void upscale(int[] source, int[] pixels) {
+        int[] columns = upscaleColumns;
+        int previousRow = -1;
+        for (int y = 0; y < screenHeight; y++) {
+            int row = y * viewHeight / screenHeight;
+            int to = y * screenWidth;
+            if (row == previousRow) {
+                System.arraycopy(pixels, to - screenWidth, pixels, to, screenWidth);
+                continue;
+            }
+            int from = row * viewWidth;
+            for (int x = 0; x < screenWidth; x++) {
+                pixels[to + x] = source[from + columns[x]];
+            }
+            previousRow = row;
+        }
+    }
+
+    /**
+     * Casts all screen columns, splitting them into bands on the raycast pool when more than one
+     * thread is configured. Each band owns a disjoint slice of the framebuffer and zBuffer, and
+     * the call returns only once every band has finished.
+     */
+    private void castWalls(Map map) {
+        int threads = Math.max(1, settings.getRaycastThreads());
+        int bands = settings.getRaycastBands() > 0 ? settings.getRaycastBands() : threads * 4;
+        bands = Math.min(bands, viewWidth);
+
+        if (threads == 1 || bands == 1) {
+            castColumns(map, 0, viewWidth);
+            return;
+        }
+
+        if (raycastPool == null || raycastPoolThreads != threads) {
+            if (raycastPool != null) raycastPool.shutdown();
+            raycastPool = new ForkJoinPool(threads);
+            raycastPoolThreads = threads;
+        }
+        raycastPool.invoke(new RaycastTask(map, 0, bands, bands));
+    }
+
+    // Serializable only through ForkJoinTask, never actually serialized
+    @SuppressWarnings("serial")
+    private final class RaycastTask extends RecursiveAction {
+        private final Map map;
+        private final int firstBand;
+        private final int endBand;
+        private final int bandCount;
+
+        RaycastTask(Map map, int firstBand, int endBand, int bandCount) {
+            this.map = map;
+            this.firstBand = firstBand;
+            this.endBand = endBand;
+            this.bandCount = bandCount;
+        }
+
+        @Override
+        protected void compute() {
+            if (endBand - firstBand == 1) {
+                castColumns(map, firstBand * viewWidth / bandCount, endBand * viewWidth / bandCount);
+                return;
+            }
+            int mid = (firstBand + endBand) >>> 1;
+            invokeAll(new RaycastTask(map, firstBand, mid, bandCount), new RaycastTask(map, mid, endBand, bandCount));
+        }
+    }
+
+    private void castColumns(Map map, int fromX, int toX) {
+        int[] pixels = frameBuffer;
+        int width = viewWidth;
+        int height = viewHeight;
+        int[] texels = wallAtlas.getTexels();
+        // Null for streamed maps, which are read tile by tile through the Map API
+        ByteBuffer tiles = map.getTiles();
+        int stride = map.getStride();
+        boolean mipmapping = settings.isMipmapping();
+        double posX = camPosX;
+        double posY = camPosY;
+        long steps = 0;
+
+        for (int x = fromX; x < toX; x++) {
+            double rayDirX = rayDirXs[x];
+            double rayDirY = rayDirYs[x];
+
+            int mapX = (int) posX;
+            int mapY = (int) posY;
+
+            double sideDistX;
+            double sideDistY;
+
+            double deltaDistX = deltaDistXs[x];
+            double deltaDistY = deltaDistYs[x];
+
+            int stepX;
+            int stepY;
+            int side = 0;
+            int tileIndex = map.index(mapX, mapY);
+            int tile;
+            int tileFlags;
+
+            if (rayDirX < 0) {
+                stepX = -1;
+                sideDistX = (posX - mapX) * deltaDistX;
+            } else {
+                stepX = 1;
+                sideDistX = (mapX + 1.0 - posX) * deltaDistX;
+            }
+
+            if (rayDirY < 0) {
+                stepY = -1;
+                sideDistY = (posY - mapY) * deltaDistY;
+            } else {
+                stepY = 1;
+                sideDistY = (mapY + 1.0 - posY) * deltaDistY;
+            }
+
+            while (true) {
+                steps++;
+                if (sideDistX < sideDistY) {
+                    sideDistX += deltaDistX;
+                    tileIndex += stepX;
+                    mapX += stepX;
+                    side = 0;
+                } else {
+                    sideDistY += deltaDistY;
+                    tileIndex += stepY * stride;
+                    mapY += stepY;
+                    side = 1;
+                }
+
+                // The map's wall border guarantees this stops before leaving the buffer
+                tile = tiles != null ? tiles.get(tileIndex) & 0xFF : map.getTile(mapX, mapY);
+                tileFlags = TileFlags.of(tile);
+                if ((tileFlags & TileFlags.SOLID) != 0) break;
+            }
+
+            double perpWallDist = side == 0 ? sideDistX - deltaDistX : sideDistY - deltaDistY;
+            zBuffer[x] = perpWallDist;
+
+            int lineHeight = (int) (height / perpWallDist);
+            int drawStart = -lineHeight / 2 + height / 2;
+            if (drawStart < 0) drawStart = 0;
+            int drawEnd = lineHeight / 2 + height / 2;
+            if (drawEnd >= height) drawEnd = height - 1;
+
+            if ((tileFlags & TileFlags.DOOR_FLAG) != 0) {
+                fillColumn(x, drawStart, drawEnd, DOOR_COLOR);
+            } else if ((tileFlags & TileFlags.LOCKED) != 0) {
+                fillColumn(x, drawStart, drawEnd, LOCKED_DOOR_COLOR);
+            } else if ((tileFlags & TileFlags.TEXTURED) != 0 && wallAtlas.offset(tile, side) >= 0) {
+                double wallX;
+                if (side == 0) {
+                    wallX = posY + perpWallDist * rayDirY;
+                } else {
+                    wallX = posX + perpWallDist * rayDirX;
+                }
+                wallX -= Math.floor(wallX);
+
+                // Distant slices read a mip level with about one texel per pixel
+                int level = mipmapping ? WallTextureAtlas.mipLevel(lineHeight) : 0;
+                int texSize = TEXTURE_SIZE >> level;
+                int texX = (int) (wallX * texSize);
+                if ((side == 0 && rayDirX > 0) || (side == 1 && rayDirY < 0)) {
+                    texX = texSize - texX - 1;
+                }
+                // Column-major atlas: the whole texture column is one contiguous run
+                int texColumn = WallTextureAtlas.levelOffset(wallAtlas.offset(tile, side), level) + texX * texSize;
+
+                // Walk the texture column in fixed steps rather than re-projecting each pixel
+                double step = (double) texSize / lineHeight;
+                double texPos = (drawStart - height / 2 + lineHeight / 2) * step;
+                for (int i = drawStart * width + x, end = drawEnd * width + x; i <= end; i += width) {
+                    int texY = (int) texPos;
+                    if (texY >= texSize) texY = texSize - 1;
+                    texPos += step;
+                    pixels[i] = texels[texColumn + texY];
+                }
+            } else {
+                fillColumn(x, drawStart, drawEnd, side == 0 ? UNKNOWN_WALL_COLOR : UNKNOWN_WALL_SIDE_COLOR);
+            }
+        }
+        // Once per band, so counting costs the cast loop nothing but a register increment
+        ddaSteps.add(steps);
+        raysCast.add(toX - fromX);
+    }
+
+    private void fillColumn(int x, int startY, int endY, int color) {
+        int[] pixels = frameBuffer;
+        int width = viewWidth;
+        for (int i = startY * width + x, end = endY * width + x; i <= end; i += width) {
+            pixels[i] = color;
+        }
+    }
+
+    private static double lerp(double from, double to, double alpha) {
+        return from + (to - from) * alpha;
+    }
+
+    private static int argb(Color color) {
+        return 0xFF000000
+                | ((int) Math.round(color.getRed() * 255) << 16)
+                | ((int) Math.round(color.getGreen() * 255) << 8)
+                | (int) Math.round(color.getBlue() * 255);
+    }
+
+    /**
+     * Original renderer: issues GraphicsContext calls for every screen column.
+     */
+    private void renderWithCanvas(GraphicsContext gc, Player player, Map map, BulletSystem bullets, EnemyStore enemies) {
+        if (wallImages == null) {
+            wallImages = loadWallImages();
+        }
+        // This path overwrites the zBuffer
+        wallLayerMap = null;
+
         // Draw sky
         gc.setFill(Color.LIGHTBLUE);
         gc.fillRect(0, 0, screenWidth, (double) screenHeight / 2);
@@ -31,8 +565,6 @@ public class Renderer {
         gc.setFill(Color.DARKGRAY);
         gc.fillRect(0, (double) screenHeight / 2, screenWidth, (double) screenHeight / 2);
 
-        double[] zBuffer = new double[screenWidth];
-
         // Simulate what we see if we looked straight ahead, column by column
         for (int x = 0; x < screenWidth; x++) {
 
@@ -89,7 +621,7 @@ public class Renderer {
                     side = 1;
                 }
 
-                if (map.isWall(mapX, mapY)) hit = true;
+                if (map.isSolid(mapX, mapY)) hit = true;
             }
 
             // Calculates true straight-line distance to the wall, correcting for the angle
@@ -130,14 +662,8 @@ public class Renderer {
                 gc.fillOval(x, drawStart, x, drawEnd);
             } else if (map.isWall(mapX, mapY)) {
                 int wallType = map.getTile(mapX, mapY);
-                GameObject wallObj = GameObject.fromValue(wallType);
-                if (wallObj != null) {
-                    Image wallImage = wallTextures.computeIfAbsent(
-                            wallType,
-                            id -> new Image(Objects.requireNonNull(
-                                    Renderer.class.getResourceAsStream(wallObj.getImagePathForWalls())
-                            ))
-                    );
+                Image wallImage = wallType < wallImages.length ? wallImages[wallType] : null;
+                if (wallImage != null) {
                     int texWidth = (int) wallImage.getWidth();
                     double wallX;
                     if (side == 0) {
@@ -171,151 +697,58 @@ public class Renderer {
             }
         }
 
-        enemies.forEach(enemy -> renderEnemy(gc, player, enemy.getX(), enemy.getY(), zBuffer));
-        bullets.forEach(bullet -> renderBullet(gc, bullet, player, zBuffer));
-        enemyBullets.forEach(bullet -> renderEnemyBullet(gc, bullet, player, zBuffer));
+        for (int i = 0; i < enemies.size(); i++) {
+            renderEnemy(gc, player, enemies.getX(i), enemies.getY(i), zBuffer);
+        }
+        for (int i = 0; i < bullets.size(); i++) {
+            Color color = bullets.getOwner(i) == BulletSystem.OWNER_PLAYER ? Color.BLUE : Color.RED;
+            renderBullet(gc, bullets.getX(i), bullets.getY(i), color, player, zBuffer);
+        }
     }
 
     public void renderWeapon(GraphicsContext gc, Player player) {
-        String weaponImagePath = "/com/example/wolfenstein/images/weapons/Jagpistol.png";
-        try {
-            Image weaponImage = new Image(Objects.requireNonNull(Renderer.class.getResourceAsStream(weaponImagePath)));
+        if (!weaponImageLoaded) {
+            weaponImage = HudLayer.loadImage("/com/example/wolfenstein/images/weapons/Jagpistol.png");
+            weaponImageLoaded = true;
+        }
+
+        int hudHeight = HudLayer.HUD_HEIGHT;
+        if (weaponImage != null) {
             double weaponWidth = screenWidth * 0.30;
             double weaponHeight = screenHeight * 0.30;
             double x = (screenWidth - weaponWidth) / 2.0;
-
-            int hudHeight = 90;
             double y = screenHeight - hudHeight - weaponHeight + 20;
 
             gc.drawImage(weaponImage, x, y, weaponWidth, weaponHeight);
-        } catch (Exception e) {
+        } else {
             // fallback
             gc.setFill(Color.BLACK);
-            int hudHeight = 90;
             double w = screenWidth * 0.20;
             double h = screenHeight * 0.15;
             gc.fillRect((screenWidth - w) / 2.0, screenHeight - hudHeight - h, w, h);
         }
     }
 
-
     public void renderHUD(GraphicsContext gc, Player player) {
-        int hudHeight = 90;
-        int sectionCount = 7; // Level, Score, Lives, Face, Health, Ammo, Weapon
-        int sectionWidth = screenWidth / sectionCount;
-        int y = screenHeight - hudHeight;
-
-        // Draw blue HUD background
-        gc.setFill(Color.rgb(11, 39, 132));
-        gc.fillRect(0, y, screenWidth, hudHeight);
-
-        // Draw box borders
-        gc.setStroke(Color.rgb(190, 208, 255));
-        gc.setLineWidth(3);
-        for (int i = 0; i < sectionCount; i++) {
-            gc.strokeRect(i * sectionWidth, y, sectionWidth, hudHeight);
-        }
-
-        gc.setLineWidth(1);
-
-        // Set text font
-        gc.setFont(javafx.scene.text.Font.font("Consolas", 32));
-        gc.setFill(Color.WHITE);
-
-        // For each box, compute centerX and centerY (middle of box)
-        double baseY = y;
-        double boxCenterY = baseY + hudHeight / 2.2;
-
-        // 1. Level
-        drawCenteredText(gc, "LEVEL", sectionWidth * 0.5, baseY + 32);
-        drawCenteredText(gc, String.valueOf(player.getLevel()), sectionWidth * 0.5, boxCenterY + 18);
-
-        // 2. Score
-        drawCenteredText(gc, "SCORE", sectionWidth * 1.5, baseY + 32);
-        drawCenteredText(gc, String.format("%06d", player.getScore()), sectionWidth * 1.5, boxCenterY + 18);
-
-        // 3. Lives
-        drawCenteredText(gc, "LIVES", sectionWidth * 2.5, baseY + 32);
-        drawCenteredText(gc, String.valueOf(player.getLives()), sectionWidth * 2.5, boxCenterY + 18);
-
-        // 4. Face (center image in box)
-        try {
-            Image faceImage = new Image(Objects.requireNonNull(Renderer.class.getResourceAsStream("/com/example/wolfenstein/images/hud/character.jpeg")));
-            double faceSize = hudHeight - 18;
-            double faceX = sectionWidth * 3 + (sectionWidth - faceSize) / 2;
-            double faceY = baseY + (hudHeight - faceSize) / 2;
-            gc.drawImage(faceImage, faceX, faceY, faceSize, faceSize);
-        } catch (Exception e) {
-            // fallback: draw a brown box
-            gc.setFill(Color.BROWN);
-            gc.fillRect(sectionWidth * 3 + 8, baseY + 8, sectionWidth - 16, hudHeight - 16);
-        }
-
-        // 5. Health
-        gc.setFill(Color.WHITE);
-        drawCenteredText(gc, "HEALTH", sectionWidth * 4.5, baseY + 32);
-        drawCenteredText(gc, String.format("%3d%%", (int)(player.getHealth())), sectionWidth * 4.5, boxCenterY + 18);
-
-        // 6. Ammo
-        drawCenteredText(gc, "AMMO", sectionWidth * 5.5, baseY + 32);
-        drawCenteredText(gc, String.valueOf(player.getAmmo()), sectionWidth * 5.5, boxCenterY + 18);
-
-        // 7. Weapon (center image in last box)
-        try {
-            Image weaponImage = new Image(Objects.requireNonNull(Renderer.class.getResourceAsStream("/com/example/wolfenstein/images/hud/weapon/Pistol.png")));
-            double weaponSize = hudHeight - 24; // a bit smaller for padding
-            double weaponX = sectionWidth * 6 + (sectionWidth - weaponSize) / 2;
-            double weaponY = baseY + (hudHeight - weaponSize) / 2;
-            gc.drawImage(weaponImage, weaponX, weaponY, weaponSize, weaponSize);
-        } catch (Exception e) {
-            // fallback: draw a black gun shape
-            gc.setStroke(Color.BLACK);
-            gc.setLineWidth(6);
-            double gunCenterX = sectionWidth * 6 + sectionWidth / 2.0;
-            double gunY = baseY + hudHeight / 2.0;
-            gc.strokeLine(gunCenterX - 24, gunY - 5, gunCenterX + 28, gunY - 5);
-            gc.strokeLine(gunCenterX + 8, gunY - 17, gunCenterX + 8, gunY + 15);
-            gc.strokeLine(gunCenterX - 6, gunY + 10, gunCenterX + 22, gunY + 16);
-            gc.setLineWidth(1);
+        if (hud == null) {
+            hud = new HudLayer(screenWidth, screenHeight);
         }
+        hud.render(gc, player);
     }
 
-    private void drawCenteredText(GraphicsContext gc, String text, double centerX, double centerY) {
-        Font font = gc.getFont();
-        Text tempText = new Text(text);
-        tempText.setFont(font);
-        double textWidth = tempText.getLayoutBounds().getWidth();
-        double textHeight = tempText.getLayoutBounds().getHeight();
-        gc.fillText(text, centerX - textWidth / 2, centerY + textHeight / 4);
-    }
-
-
-    private void renderBullet(GraphicsContext gc, Bullet bullet, Player player, double[] zBuffer) {
-        double dx = bullet.getX() - player.getPosX();
-        double dy = bullet.getY() - player.getPosY();
-
-        // Камерні координати
-        double invDet = 1.0 /  (player.getPlaneX() * player.getDirY() - player.getDirX() * player.getPlaneY());
-        double transformX = invDet * (player.getDirY() * dx - player.getDirX() * dy);
-        double transformY = invDet * (-player.getPlaneY() * dx + player.getPlaneX() * dy);
-
-        if (transformY <= 0) return;
-
-        int bulletScreenX = (int) ((screenWidth / 2.0) * (1 + transformX / transformY));
-
-        int bulletSize = (int) Math.max(3, Math.abs(screenHeight / (transformY * 16)));
-
-        int bulletScreenY = screenHeight / 2  - bulletSize / 2;
-
-        if (bulletScreenX >= 0 && bulletScreenX < screenWidth && transformY < zBuffer[bulletScreenX]) {
-            gc.setFill(Color.BLUE);
-            gc.fillOval(bulletScreenX - bulletSize / 2.0, bulletScreenY, bulletSize, bulletSize);
+    private static Image[] loadWallImages() {
+        Image[] images = new Image[GameObject.values().length + 1];
+        for (GameObject wall : GameObject.values()) {
+            images[wall.getValue()] = new Image(Objects.requireNonNull(
+                    Renderer.class.getResourceAsStream(wall.getImagePathForWalls())
+            ));
         }
+        return images;
     }
 
-    private void renderEnemyBullet(GraphicsContext gc, Bullet bullet, Player player, double[] zBuffer) {
-        double dx = bullet.getX() - player.getPosX();
-        double dy = bullet.getY() - player.getPosY();
+    private void renderBullet(GraphicsContext gc, double bulletX, double bulletY, Color color, Player player, double[] zBuffer) {
+        double dx = bulletX - player.getPosX();
+        double dy = bulletY - player.getPosY();
 
         // Камерні координати
         double invDet = 1.0 /  (player.getPlaneX() * player.getDirY() - player.getDirX() * player.getPlaneY());
@@ -331,7 +764,7 @@ public class Renderer {
         int bulletScreenY = screenHeight / 2  - bulletSize / 2;
 
         if (bulletScreenX >= 0 && bulletScreenX < screenWidth && transformY < zBuffer[bulletScreenX]) {
-            gc.setFill(Color.RED);
+            gc.setFill(color);
             gc.fillOval(bulletScreenX - bulletSize / 2.0, bulletScreenY, bulletSize, bulletSize);
         }
     }
@@ -357,11 +790,16 @@ public class Renderer {
         int drawStartX = -spriteWidth / 2 + spriteScreenX;
         int drawEndX = spriteWidth / 2 + spriteScreenX;
 
-        for (int stripe = drawStartX; stripe < drawEndX; stripe++) {
-            if (stripe < 0 || stripe >= screenWidth) continue;
-            if (transformY < zBuffer[stripe]) { // Check if the enemy is visible at this column
-                gc.setFill(Color.LIMEGREEN);
-                gc.fillRect(stripe, drawStartY, 1, drawEndY - drawStartY);
+        // One fillRect per run of columns where the enemy is in front of the walls
+        gc.setFill(Color.LIMEGREEN);
+        int stripe = Math.max(0, drawStartX);
+        int endStripe = Math.min(screenWidth, drawEndX);
+        while (stripe < endStripe) {
+            while (stripe < endStripe && transformY >= zBuffer[stripe]) stripe++;
+            int spanStart = stripe;
+            while (stripe < endStripe && transformY < zBuffer[stripe]) stripe++;
+            if (spanStart < stripe) {
+                gc.fillRect(spanStart, drawStartY, stripe - spanStart, drawEndY - drawStartY);
             }
         }
     }
@@ -0,0 +1,121 @@
+package com.example.wolfenstein.games;
+
+import java.util.Locale;
+
+/**
+ * Moves the {@link RenderSettings#getResolutionScale() render resolution scale} to keep frames
+ * within {@link RenderSettings#getFrameBudgetMillis() the frame budget}.
+ * <p>
+ * Frame times are render times only, simulation ticks excluded, and only frames that cast their
+ * walls count: a frame that reuses the previous frame's walls costs far less at the same scale.
+ * They are averaged over windows of {@value #WINDOW} frames. Raycast and sprite cost
+ * follow the pixel count, i.e. the square of the scale, so a window over budget drops the scale
+ * straight to the one predicted to fit, while the scale only rises a step at a time, once
+ * {@value #RAISE_AFTER_WINDOWS} windows in a row predict the step to fit as well. Dropping fast
+ * and rising slowly keeps the scale from oscillating around the budget.
+ * <p>
+ * Call {@link #onFrame} from the render thread; {@link #getStatus} can be read from any thread.
+ */
+public class ResolutionController {
+    public static final double SCALE_STEP = 0.05;
+
+    private static final int WINDOW = 15;
+    // Share of the budget a frame should take after a change, headroom for spikes
+    private static final double TARGET_LOAD = 0.85;
+    private static final int RAISE_AFTER_WINDOWS = 3;
+
+    private final RenderSettings settings;
+
+    // Current window
+    private int frames;
+    private long totalNanos;
+    private long maxNanos;
+    // Consecutive windows with room for the next step up
+    private int headroomWindows;
+
+    private int drops;
+    private int raises;
+    private volatile String status = "";
+
+    public ResolutionController(RenderSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Records the render time of a frame that cast its walls, and adjusts the scale at the end of
+     * a window.
+     */
+    public void onFrame(long frameNanos) {
+        if (!settings.isDynamicResolution()) {
+            frames = 0;
+            return;
+        }
+        if (frames == 0) {
+            totalNanos = 0;
+            maxNanos = 0;
+        }
+        totalNanos += frameNanos;
+        maxNanos = Math.max(maxNanos, frameNanos);
+        if (++frames < WINDOW) return;
+        frames = 0;
+
+        double meanNanos = (double) totalNanos / WINDOW;
+        double budgetNanos = settings.getFrameBudgetMillis() * 1e6;
+        double minScale = Math.max(Renderer.MIN_RESOLUTION_SCALE, settings.getMinResolutionScale());
+        double scale = Math.clamp(settings.getResolutionScale(), minScale, 1.0);
+        double next = scale;
+
+        if (meanNanos > budgetNanos) {
+            double fits = scale * Math.sqrt(budgetNanos * TARGET_LOAD / meanNanos);
+            next = Math.max(minScale, Math.min(scale - SCALE_STEP, quantize(fits)));
+        } else if (scale < 1.0) {
+            double up = Math.min(1.0, Math.round(scale / SCALE_STEP + 1) * SCALE_STEP);
+            boolean fits = meanNanos * (up * up) / (scale * scale) < budgetNanos * TARGET_LOAD;
+            headroomWindows = fits ? headroomWindows + 1 : 0;
+            if (headroomWindows >= RAISE_AFTER_WINDOWS) {
+                next = up;
+            }
+        }
+
+        if (next != scale) {
+            headroomWindows = 0;
+            settings.setResolutionScale(next);
+            if (next < scale) drops++;
+            else raises++;
+
+            ResolutionEvent event = new ResolutionEvent();
+            if (event.shouldCommit()) {
+                event.previousScale = scale;
+                event.scale = next;
+                event.meanFrameMillis = meanNanos / 1e6;
+                event.budgetMillis = settings.getFrameBudgetMillis();
+                event.commit();
+            }
+        }
+        // Scale, mean and max frame time against the budget, and the number of drops and raises so far
+        status = String.format(Locale.ROOT, "scale %4.0f%%  mean %5.1f  max %5.1f / %.1f ms  -%d +%d",
+                next * 100, meanNanos / 1e6, maxNanos / 1e6, settings.getFrameBudgetMillis(), drops, raises);
+    }
+
+    /**
+     * Largest multiple of {@link #SCALE_STEP} not above {@code scale}.
+     */
+    private static double quantize(double scale) {
+        return Math.floor(scale / SCALE_STEP + 1e-9) * SCALE_STEP;
+    }
+
+    public int getDrops() {
+        return drops;
+    }
+
+    public int getRaises() {
+        return raises;
+    }
+
+    /**
+     * One-line summary of the last window, empty before the first one.
+     */
+    public String getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.wolfenstein.games;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for each change of the render resolution made by a {@link ResolutionController}.
+ * Disabled by default, like {@link FrameEvent}.
+ */
+@Name("com.example.wolfenstein.Resolution")
+@Label("Resolution Change")
+@Category("Wolfenstein")
+@Description("Dynamic resolution scale changed to hold the frame budget")
+@Enabled(false)
+@StackTrace(false)
+public class ResolutionEvent extends jdk.jfr.Event {
+    @Label("Previous Scale")
+    public double previousScale;
+
+    @Label("Scale")
+    public double scale;
+
+    @Label("Mean Frame Time (ms)")
+    public double meanFrameMillis;
+
+    @Label("Budget (ms)")
+    public double budgetMillis;
+}
@@ -0,0 +1,53 @@
+package com.example.wolfenstein.games;
+
+import java.util.SplittableRandom;
+
+/**
+ * Seeded stand-in for a player: holds a random mix of moving, turning, firing and using for a
+ * random stretch of ticks, then picks again. The same seed always gives the same inputs, so
+ * scripted runs are as reproducible as replays of {@link InputRecording}s.
+ */
+public class ScriptedInput {
+    private static final int MIN_HOLD_TICKS = 10;
+    private static final int MAX_HOLD_TICKS = 90;
+
+    private final SplittableRandom random;
+    private int buttons;
+    private int ticksLeft;
+
+    public ScriptedInput(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Buttons for the next tick.
+     */
+    public int next() {
+        if (ticksLeft == 0) {
+            buttons = pick();
+            ticksLeft = random.nextInt(MIN_HOLD_TICKS, MAX_HOLD_TICKS + 1);
+        }
+        ticksLeft--;
+
+        // Fire and use only act on a press, so tap them instead of holding them down
+        int held = buttons;
+        if ((ticksLeft & 7) != 0) {
+            held &= ~(InputAction.FIRE.mask() | InputAction.USE.mask());
+        }
+        return held;
+    }
+
+    private int pick() {
+        int next = 0;
+        if (random.nextInt(4) != 0) next |= InputAction.FORWARD.mask();
+        switch (random.nextInt(3)) {
+            case 0 -> next |= InputAction.TURN_LEFT.mask();
+            case 1 -> next |= InputAction.TURN_RIGHT.mask();
+            default -> {
+            }
+        }
+        if (random.nextBoolean()) next |= InputAction.FIRE.mask();
+        if (random.nextInt(3) == 0) next |= InputAction.USE.mask();
+        return next;
+    }
+}
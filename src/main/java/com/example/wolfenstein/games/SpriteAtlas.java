@@ -0,0 +1,148 @@
+package com.example.wolfenstein.games;
+
+/**
+ * Billboard sprite textures, generated once into a single int[] of ARGB texels.
+ * <p>
+ * Same layout as {@link WallTextureAtlas}: each sprite is {@link #SPRITE_SIZE} texels square and
+ * stored column-major. Texels are either fully opaque or fully transparent (alpha 0). Each sprite
+ * also records the bounding box of its opaque texels, so drawing never touches the empty margin.
+ */
+public final class SpriteAtlas {
+    public static final int SPRITE_SIZE = 64;
+
+    public static final int ENEMY = 0;
+    public static final int PLAYER_BULLET = 1;
+    public static final int ENEMY_BULLET = 2;
+    public static final int SPRITE_COUNT = 3;
+
+    private static final int SPRITE_AREA = SPRITE_SIZE * SPRITE_SIZE;
+
+    private static final int ENEMY_COLOR = 0xFF32CD32;
+    private static final int ENEMY_SHADE_COLOR = 0xFF228B22;
+    private static final int ENEMY_EYE_COLOR = 0xFF102010;
+    private static final int PLAYER_BULLET_COLOR = 0xFF0000FF;
+    private static final int ENEMY_BULLET_COLOR = 0xFFFF0000;
+
+    // Height in world units (1 = a wall) and the smallest on-screen size, per sprite
+    private static final double[] WORLD_SIZE = {1.0, 1.0 / 16, 1.0 / 16};
+    private static final int[] MIN_PIXELS = {0, 3, 3};
+
+    private final int[] texels = new int[SPRITE_COUNT * SPRITE_AREA];
+    // Per sprite: first and last opaque texel column and row, inclusive
+    private final int[] opaqueMinX = new int[SPRITE_COUNT];
+    private final int[] opaqueMaxX = new int[SPRITE_COUNT];
+    private final int[] opaqueMinY = new int[SPRITE_COUNT];
+    private final int[] opaqueMaxY = new int[SPRITE_COUNT];
+
+    private SpriteAtlas() {
+    }
+
+    public static SpriteAtlas create() {
+        SpriteAtlas atlas = new SpriteAtlas();
+        atlas.paintEnemy();
+        atlas.paintDisc(PLAYER_BULLET, PLAYER_BULLET_COLOR);
+        atlas.paintDisc(ENEMY_BULLET, ENEMY_BULLET_COLOR);
+        for (int sprite = 0; sprite < SPRITE_COUNT; sprite++) {
+            atlas.measure(sprite);
+        }
+        return atlas;
+    }
+
+    public int[] getTexels() {
+        return texels;
+    }
+
+    /**
+     * Index of texel (0, 0) of {@code sprite}. Texel (texX, texY) lives at
+     * {@code offset + texX * SPRITE_SIZE + texY}.
+     */
+    public int offset(int sprite) {
+        return sprite * SPRITE_AREA;
+    }
+
+    public double worldSize(int sprite) {
+        return WORLD_SIZE[sprite];
+    }
+
+    public int minPixels(int sprite) {
+        return MIN_PIXELS[sprite];
+    }
+
+    public int opaqueMinX(int sprite) {
+        return opaqueMinX[sprite];
+    }
+
+    public int opaqueMaxX(int sprite) {
+        return opaqueMaxX[sprite];
+    }
+
+    public int opaqueMinY(int sprite) {
+        return opaqueMinY[sprite];
+    }
+
+    public int opaqueMaxY(int sprite) {
+        return opaqueMaxY[sprite];
+    }
+
+    // Standing figure: head, torso with a belt, arms and legs, shaded on its left side
+    private void paintEnemy() {
+        fillDisc(ENEMY, 32, 13, 8, ENEMY_COLOR);
+        fillRect(ENEMY, 20, 23, 44, 46, ENEMY_COLOR);
+        fillRect(ENEMY, 13, 24, 19, 41, ENEMY_SHADE_COLOR);
+        fillRect(ENEMY, 45, 24, 51, 41, ENEMY_COLOR);
+        fillRect(ENEMY, 21, 46, 30, 64, ENEMY_SHADE_COLOR);
+        fillRect(ENEMY, 34, 46, 43, 64, ENEMY_COLOR);
+        fillRect(ENEMY, 20, 38, 44, 41, ENEMY_SHADE_COLOR);
+        fillRect(ENEMY, 28, 11, 31, 14, ENEMY_EYE_COLOR);
+        fillRect(ENEMY, 34, 11, 37, 14, ENEMY_EYE_COLOR);
+    }
+
+    private void paintDisc(int sprite, int color) {
+        fillDisc(sprite, SPRITE_SIZE / 2, SPRITE_SIZE / 2, SPRITE_SIZE / 2 - 1, color);
+    }
+
+    private void fillDisc(int sprite, int centerX, int centerY, int radius, int color) {
+        for (int y = centerY - radius; y <= centerY + radius; y++) {
+            for (int x = centerX - radius; x <= centerX + radius; x++) {
+                int dx = x - centerX;
+                int dy = y - centerY;
+                if (dx * dx + dy * dy <= radius * radius) set(sprite, x, y, color);
+            }
+        }
+    }
+
+    // Fills [x0, x1) x [y0, y1)
+    private void fillRect(int sprite, int x0, int y0, int x1, int y1, int color) {
+        for (int x = x0; x < x1; x++) {
+            for (int y = y0; y < y1; y++) {
+                set(sprite, x, y, color);
+            }
+        }
+    }
+
+    private void set(int sprite, int x, int y, int color) {
+        if (x < 0 || y < 0 || x >= SPRITE_SIZE || y >= SPRITE_SIZE) return;
+        texels[offset(sprite) + x * SPRITE_SIZE + y] = color;
+    }
+
+    private void measure(int sprite) {
+        int minX = SPRITE_SIZE;
+        int maxX = -1;
+        int minY = SPRITE_SIZE;
+        int maxY = -1;
+        int base = offset(sprite);
+        for (int x = 0; x < SPRITE_SIZE; x++) {
+            for (int y = 0; y < SPRITE_SIZE; y++) {
+                if (texels[base + x * SPRITE_SIZE + y] >>> 24 == 0) continue;
+                minX = Math.min(minX, x);
+                maxX = Math.max(maxX, x);
+                minY = Math.min(minY, y);
+                maxY = Math.max(maxY, y);
+            }
+        }
+        opaqueMinX[sprite] = minX;
+        opaqueMaxX[sprite] = maxX;
+        opaqueMinY[sprite] = minY;
+        opaqueMaxY[sprite] = maxY;
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.wolfenstein.games;
+
+import java.util.Arrays;
+
+/**
+ * Per-frame list of billboard sprites for the framebuffer renderer.
+ * <p>
+ * Sprites are projected once when {@link #add added}; ones behind the camera or off screen are
+ * dropped right there. {@link #draw} then sorts the rest back-to-front and draws each one from
+ * the {@link SpriteAtlas}, clipped to its opaque texels. Columns where the sprite is in front of
+ * the wall zBuffer are merged into spans, and each span is filled row by row, so the cost of a
+ * sprite follows the pixels it covers rather than the number of columns or sprites.
+ */
+final class SpriteBatch {
+    // Sprites closer than this are inside the player and would project to huge rects
+    private static final double MIN_DEPTH = 0.05;
+    private static final int SPRITE_SIZE = SpriteAtlas.SPRITE_SIZE;
+
+    // Resolution sprites are projected to, set with setViewport
+    private int screenWidth;
+    private int screenHeight;
+    private final SpriteAtlas atlas;
+
+    // Projected sprites of the current frame, indexed by submission order
+    private double[] depth = new double[64];
+    private int[] screenX = new int[64];
+    private int[] size = new int[64];
+    private int[] sprite = new int[64];
+    // depth bits << 32 | index, sorted to get the drawing order
+    private long[] order = new long[64];
+    private int count;
+
+    // Atlas offset of the texture column under each screen column of the current span, sized for
+    // the largest viewport
+    private final int[] columnOffsets;
+
+    // Camera of the current frame
+    private double camPosX;
+    private double camPosY;
+    private double camDirX;
+    private double camDirY;
+    private double camPlaneX;
+    private double camPlaneY;
+    private double invDet;
+
+    private int culled;
+    private int drawn;
+    private int spans;
+
+    SpriteBatch(int screenWidth, int screenHeight, SpriteAtlas atlas) {
+        this.screenWidth = screenWidth;
+        this.screenHeight = screenHeight;
+        this.atlas = atlas;
+        this.columnOffsets = new int[screenWidth];
+    }
+
+    /**
+     * Projects later sprites to a smaller resolution, at most the one the batch was created with.
+     */
+    void setViewport(int width, int height) {
+        if (width > columnOffsets.length) {
+            throw new IllegalArgumentException("Viewport is wider than " + columnOffsets.length + " pixels");
+        }
+        screenWidth = width;
+        screenHeight = height;
+    }
+
+    void begin(double posX, double posY, double dirX, double dirY, double planeX, double planeY) {
+        camPosX = posX;
+        camPosY = posY;
+        camDirX = dirX;
+        camDirY = dirY;
+        camPlaneX = planeX;
+        camPlaneY = planeY;
+        invDet = 1.0 / (planeX * dirY - dirX * planeY);
+        count = 0;
+        culled = 0;
+        drawn = 0;
+        spans = 0;
+    }
+
+    void add(double x, double y, int spriteId) {
+        double dx = x - camPosX;
+        double dy = y - camPosY;
+        double transformX = invDet * (camDirY * dx - camDirX * dy);
+        double transformY = invDet * (-camPlaneY * dx + camPlaneX * dy);
+        if (transformY <= MIN_DEPTH) {
+            culled++;
+            return;
+        }
+
+        int centerX = (int) ((screenWidth / 2.0) * (1 + transformX / transformY));
+        int pixels = Math.max(atlas.minPixels(spriteId), (int) (screenHeight * atlas.worldSize(spriteId) / transformY));
+        int left = centerX - pixels / 2;
+        if (pixels == 0 || left + pixels <= 0 || left >= screenWidth) {
+            culled++;
+            return;
+        }
+
+        if (count == depth.length) grow();
+        depth[count] = transformY;
+        screenX[count] = centerX;
+        size[count] = pixels;
+        sprite[count] = spriteId;
+        // Positive floats order like their bit patterns; the index breaks ties deterministically
+        order[count] = ((long) Float.floatToIntBits((float) transformY) << 32) | count;
+        count++;
+    }
+
+    /**
+     * Draws the sprites added since {@link #begin}, farthest first, over the walls already in
+     * {@code pixels}.
+     */
+    void draw(int[] pixels, double[] zBuffer) {
+        Arrays.sort(order, 0, count);
+        for (int i = count - 1; i >= 0; i--) {
+            drawSprite(pixels, zBuffer, (int) order[i]);
+        }
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    int getCulled() {
+        return culled;
+    }
+
+    int getDrawn() {
+        return drawn;
+    }
+
+    int getSpans() {
+        return spans;
+    }
+
+    private void drawSprite(int[] pixels, double[] zBuffer, int index) {
+        int id = sprite[index];
+        int pixelSize = size[index];
+        double spriteDepth = depth[index];
+        int left = screenX[index] - pixelSize / 2;
+        int top = screenHeight / 2 - pixelSize / 2;
+
+        // Screen rect of the opaque texels, clipped to the screen
+        int fromX = Math.max(0, left + toScreen(atlas.opaqueMinX(id), pixelSize));
+        int toX = Math.min(screenWidth, left + toScreen(atlas.opaqueMaxX(id) + 1, pixelSize));
+        int fromY = Math.max(0, top + toScreen(atlas.opaqueMinY(id), pixelSize));
+        int toY = Math.min(screenHeight, top + toScreen(atlas.opaqueMaxY(id) + 1, pixelSize));
+        if (fromX >= toX || fromY >= toY) return;
+
+        int base = atlas.offset(id);
+        boolean visible = false;
+        int x = fromX;
+        while (x < toX) {
+            // Skip columns hidden behind walls, then take the run of columns in front of them
+            while (x < toX && spriteDepth >= zBuffer[x]) x++;
+            int spanStart = x;
+            while (x < toX && spriteDepth < zBuffer[x]) {
+                columnOffsets[x] = base + (int) ((long) (x - left) * SPRITE_SIZE / pixelSize) * SPRITE_SIZE;
+                x++;
+            }
+            if (spanStart < x) {
+                drawSpan(pixels, spanStart, x, fromY, toY, top, pixelSize);
+                visible = true;
+            }
+        }
+        if (visible) drawn++;
+    }
+
+    private void drawSpan(int[] pixels, int fromX, int toX, int fromY, int toY, int top, int pixelSize) {
+        int[] texels = atlas.getTexels();
+        spans++;
+        for (int y = fromY; y < toY; y++) {
+            int texY = (int) ((long) (y - top) * SPRITE_SIZE / pixelSize);
+            int row = y * screenWidth;
+            for (int x = fromX; x < toX; x++) {
+                int color = texels[columnOffsets[x] + texY];
+                if (color >>> 24 != 0) pixels[row + x] = color;
+            }
+        }
+    }
+
+    /**
+     * First screen offset, relative to the sprite's edge, whose texel index is at least
+     * {@code texel}.
+     */
+    private static int toScreen(int texel, int pixelSize) {
+        return (int) (((long) texel * pixelSize + SPRITE_SIZE - 1) / SPRITE_SIZE);
+    }
+
+    private void grow() {
+        int capacity = depth.length * 2;
+        depth = Arrays.copyOf(depth, capacity);
+        screenX = Arrays.copyOf(screenX, capacity);
+        size = Arrays.copyOf(size, capacity);
+        sprite = Arrays.copyOf(sprite, capacity);
+        order = Arrays.copyOf(order, capacity);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.wolfenstein.games;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning one {@link GameWorld#tick}. Disabled by default, like {@link FrameEvent}.
+ */
+@Name("com.example.wolfenstein.Tick")
+@Label("Simulation Tick")
+@Category("Wolfenstein")
+@Description("One fixed simulation step")
+@Enabled(false)
+@StackTrace(false)
+public class TickEvent extends jdk.jfr.Event {
+    @Label("Tick")
+    public long tick;
+
+    @Label("Enemies")
+    public int enemies;
+
+    @Label("Bullets")
+    public int bullets;
+}
@@ -0,0 +1,158 @@
+package com.example.wolfenstein.games;
+
+import com.example.wolfenstein.games.objects.GameObject;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * All wall textures decoded once into a single int[] of ARGB texels.
+ * <p>
+ * Every texture is stored column-major, so a vertical wall slice is a contiguous run of
+ * {@link #TEXTURE_SIZE} texels. Each tile id has two variants: the lit one for x-sides and a
+ * darkened one for y-sides (side == 1), which replaces painting a translucent black rect
+ * over the column.
+ * <p>
+ * Each variant is followed by its mip chain, 32x32 down to 1x1, every level box-filtered from
+ * the one above. Distant wall slices sample a level about as tall as the slice, which avoids
+ * the shimmer of skipping texels and keeps the texels they touch in a few cache lines.
+ */
+public final class WallTextureAtlas {
+    public static final int TEXTURE_SIZE = 64;
+    // Levels per texture, the full size one included
+    public static final int MIP_LEVELS = Integer.numberOfTrailingZeros(TEXTURE_SIZE) + 1;
+
+    // Offset of each level from texel (0, 0) of level 0, and the texels of a whole chain
+    private static final int[] LEVEL_OFFSETS = new int[MIP_LEVELS];
+    private static final int CHAIN_SIZE;
+
+    static {
+        int offset = 0;
+        for (int level = 0; level < MIP_LEVELS; level++) {
+            LEVEL_OFFSETS[level] = offset;
+            int size = TEXTURE_SIZE >> level;
+            offset += size * size;
+        }
+        CHAIN_SIZE = offset;
+    }
+
+    private final int[] texels;
+    // (tile << 1 | side) -> index of the first texel of that texture variant, -1 if untextured
+    private final int[] offsets;
+
+    private WallTextureAtlas(int[] texels, int[] offsets) {
+        this.texels = texels;
+        this.offsets = offsets;
+    }
+
+    public static WallTextureAtlas load() {
+        GameObject[] walls = GameObject.values();
+        int maxTile = 0;
+        for (GameObject wall : walls) {
+            maxTile = Math.max(maxTile, wall.getValue());
+        }
+
+        int[] offsets = new int[(maxTile + 1) << 1];
+        Arrays.fill(offsets, -1);
+        int[] texels = new int[walls.length * 2 * CHAIN_SIZE];
+
+        int next = 0;
+        for (GameObject wall : walls) {
+            BufferedImage image = decode(wall.getImagePathForWalls());
+            int lit = next;
+            int dark = next + CHAIN_SIZE;
+            next += 2 * CHAIN_SIZE;
+
+            for (int texX = 0; texX < TEXTURE_SIZE; texX++) {
+                int srcX = texX * image.getWidth() / TEXTURE_SIZE;
+                for (int texY = 0; texY < TEXTURE_SIZE; texY++) {
+                    int srcY = texY * image.getHeight() / TEXTURE_SIZE;
+                    texels[lit + texX * TEXTURE_SIZE + texY] = image.getRGB(srcX, srcY) | 0xFF000000;
+                }
+            }
+            for (int level = 1; level < MIP_LEVELS; level++) {
+                downsample(texels, lit + LEVEL_OFFSETS[level - 1], lit + LEVEL_OFFSETS[level], TEXTURE_SIZE >> level);
+            }
+            for (int i = 0; i < CHAIN_SIZE; i++) {
+                texels[dark + i] = darken(texels[lit + i]);
+            }
+            offsets[wall.getValue() << 1] = lit;
+            offsets[(wall.getValue() << 1) | 1] = dark;
+        }
+        return new WallTextureAtlas(texels, offsets);
+    }
+
+    public int[] getTexels() {
+        return texels;
+    }
+
+    /**
+     * Index of texel (0, 0) of the texture for {@code tile} seen from {@code side}, or -1 when
+     * the tile has no texture. Texel (texX, texY) lives at {@code offset + texX * TEXTURE_SIZE + texY}.
+     */
+    public int offset(int tile, int side) {
+        int key = (tile << 1) | side;
+        return key >= 0 && key < offsets.length ? offsets[key] : -1;
+    }
+
+    /**
+     * Index of texel (0, 0) of mip {@code level} of a texture, given the texture's
+     * {@link #offset(int, int) offset}. The level is {@code TEXTURE_SIZE >> level} texels square
+     * and column-major like level 0.
+     */
+    public static int levelOffset(int offset, int level) {
+        return offset + LEVEL_OFFSETS[level];
+    }
+
+    /**
+     * Mip level for a wall slice {@code lineHeight} pixels tall: the largest one that still has
+     * at least one texel per pixel.
+     */
+    public static int mipLevel(int lineHeight) {
+        int texelsPerPixel = TEXTURE_SIZE / Math.max(1, lineHeight);
+        if (texelsPerPixel <= 1) return 0;
+        return Math.min(MIP_LEVELS - 1, 31 - Integer.numberOfLeadingZeros(texelsPerPixel));
+    }
+
+    /**
+     * Fills the {@code size}-square level at {@code to} with 2x2 averages of the level twice its
+     * size at {@code from}.
+     */
+    private static void downsample(int[] texels, int from, int to, int size) {
+        int sourceSize = size * 2;
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                int column = from + 2 * x * sourceSize + 2 * y;
+                int a = texels[column];
+                int b = texels[column + 1];
+                int c = texels[column + sourceSize];
+                int d = texels[column + sourceSize + 1];
+                int r = (((a >> 16) & 0xFF) + ((b >> 16) & 0xFF) + ((c >> 16) & 0xFF) + ((d >> 16) & 0xFF) + 2) >> 2;
+                int g = (((a >> 8) & 0xFF) + ((b >> 8) & 0xFF) + ((c >> 8) & 0xFF) + ((d >> 8) & 0xFF) + 2) >> 2;
+                int bl = ((a & 0xFF) + (b & 0xFF) + (c & 0xFF) + (d & 0xFF) + 2) >> 2;
+                texels[to + x * size + y] = 0xFF000000 | (r << 16) | (g << 8) | bl;
+            }
+        }
+    }
+
+    private static BufferedImage decode(String path) {
+        try (InputStream in = Objects.requireNonNull(WallTextureAtlas.class.getResourceAsStream(path), path)) {
+            return Objects.requireNonNull(ImageIO.read(in), path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode wall texture " + path, e);
+        }
+    }
+
+    // Same result as painting black at 40% alpha over the texel
+    private static int darken(int argb) {
+        int r = ((argb >> 16) & 0xFF) * 3 / 5;
+        int g = ((argb >> 8) & 0xFF) * 3 / 5;
+        int b = (argb & 0xFF) * 3 / 5;
+        return (argb & 0xFF000000) | (r << 16) | (g << 8) | b;
+    }
+}
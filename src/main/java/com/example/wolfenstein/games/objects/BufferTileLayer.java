@@ -0,0 +1,42 @@
+package com.example.wolfenstein.games.objects;
+
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Whole map resident in one buffer, row by row with a one-tile wall border on every side.
+ * The buffer is on the heap for layouts built in code and memory-mapped for level files.
+ */
+@Getter
+public class BufferTileLayer implements TileLayer {
+    private final int width;
+    private final int height;
+    private final int stride;
+    private final ByteBuffer buffer;
+
+    public BufferTileLayer(int width, int height, ByteBuffer buffer) {
+        this.width = width;
+        this.height = height;
+        this.stride = width + 2;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Index of (x, y) in the buffer. Valid for -1 <= x <= width and -1 <= y <= height; the
+     * outermost ring is the border.
+     */
+    public int index(int x, int y) {
+        return (y + 1) * stride + x + 1;
+    }
+
+    @Override
+    public int get(int x, int y) {
+        return buffer.get(index(x, y)) & 0xFF;
+    }
+
+    @Override
+    public void set(int x, int y, int tile) {
+        buffer.put(index(x, y), (byte) tile);
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.wolfenstein.games.objects;
+
+import java.util.Arrays;
+
+/**
+ * All live bullets, stored as parallel primitive arrays (structure of arrays).
+ * <p>
+ * Bullets are addressed by index {@code 0 <= i < size()}. Removing one moves the last bullet
+ * into its slot, so indices are only stable until the next removal; a loop that removes while
+ * iterating should re-visit the same index afterwards. Capacity doubles when full and is never
+ * released, so a steady stream of shots allocates nothing once the arrays have grown.
+ */
+public class BulletSystem {
+    public static final int OWNER_PLAYER = 0;
+    public static final int OWNER_ENEMY = 1;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int size;
+
+    private double[] x;
+    private double[] y;
+    // Position at the previous simulation tick, for render interpolation
+    private double[] prevX;
+    private double[] prevY;
+    private double[] dirX;
+    private double[] dirY;
+    private double[] speed;
+    private double[] maxDistance;
+    private byte[] owner;
+
+    public BulletSystem() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public BulletSystem(int capacity) {
+        capacity = Math.max(1, capacity);
+        x = new double[capacity];
+        y = new double[capacity];
+        prevX = new double[capacity];
+        prevY = new double[capacity];
+        dirX = new double[capacity];
+        dirY = new double[capacity];
+        speed = new double[capacity];
+        maxDistance = new double[capacity];
+        owner = new byte[capacity];
+    }
+
+    /**
+     * Adds a bullet and returns its index.
+     */
+    public int spawn(double x, double y, double dirX, double dirY, double speed, double maxDistance, int owner) {
+        if (size == this.x.length) {
+            grow();
+        }
+        int i = size++;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.prevX[i] = x;
+        this.prevY[i] = y;
+        this.dirX[i] = dirX;
+        this.dirY[i] = dirY;
+        this.speed[i] = speed;
+        this.maxDistance[i] = maxDistance;
+        this.owner[i] = (byte) owner;
+        return i;
+    }
+
+    /**
+     * Removes bullet {@code i} by moving the last bullet into its slot.
+     */
+    public void remove(int i) {
+        int last = --size;
+        if (i != last) {
+            x[i] = x[last];
+            y[i] = y[last];
+            prevX[i] = prevX[last];
+            prevY[i] = prevY[last];
+            dirX[i] = dirX[last];
+            dirY[i] = dirY[last];
+            speed[i] = speed[last];
+            maxDistance[i] = maxDistance[last];
+            owner[i] = owner[last];
+        }
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Moves every bullet one tick along its direction, {@code speed * tickScale} tiles.
+     */
+    public void advance(double tickScale) {
+        for (int i = 0; i < size; i++) {
+            double step = speed[i] * tickScale;
+            x[i] += dirX[i] * step;
+            y[i] += dirY[i] * step;
+        }
+    }
+
+    public void savePreviousPositions() {
+        System.arraycopy(x, 0, prevX, 0, size);
+        System.arraycopy(y, 0, prevY, 0, size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return x.length;
+    }
+
+    public int count(int owner) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (this.owner[i] == owner) count++;
+        }
+        return count;
+    }
+
+    public double getX(int i) { return x[i]; }
+    public double getY(int i) { return y[i]; }
+    public double getPrevX(int i) { return prevX[i]; }
+    public double getPrevY(int i) { return prevY[i]; }
+    public double getDirX(int i) { return dirX[i]; }
+    public double getDirY(int i) { return dirY[i]; }
+    public double getSpeed(int i) { return speed[i]; }
+    public double getMaxDistance(int i) { return maxDistance[i]; }
+    public int getOwner(int i) { return owner[i]; }
+
+    private void grow() {
+        int capacity = x.length * 2;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        prevX = Arrays.copyOf(prevX, capacity);
+        prevY = Arrays.copyOf(prevY, capacity);
+        dirX = Arrays.copyOf(dirX, capacity);
+        dirY = Arrays.copyOf(dirY, capacity);
+        speed = Arrays.copyOf(speed, capacity);
+        maxDistance = Arrays.copyOf(maxDistance, capacity);
+        owner = Arrays.copyOf(owner, capacity);
+    }
+}
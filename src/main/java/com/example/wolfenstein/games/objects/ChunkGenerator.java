@@ -0,0 +1,13 @@
+package com.example.wolfenstein.games.objects;
+
+/**
+ * Fills a chunk that has never been saved. Must be deterministic so an evicted, unmodified
+ * chunk comes back identical.
+ */
+@FunctionalInterface
+public interface ChunkGenerator {
+    /**
+     * @param tiles {@link ChunkedTileLayer#CHUNK_SIZE} squared tile ids, row by row
+     */
+    void generate(int chunkX, int chunkY, byte[] tiles);
+}
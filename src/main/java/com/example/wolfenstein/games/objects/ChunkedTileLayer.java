@@ -0,0 +1,215 @@
+package com.example.wolfenstein.games.objects;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Tile layer streamed in {@link #CHUNK_SIZE}-square chunks, for arenas too large to keep
+ * resident.
+ * <p>
+ * A chunk is loaded the first time any tile in it is read: from the save directory if it was
+ * modified and evicted before, otherwise from the {@link ChunkGenerator}. Once per tick the
+ * world reports where the player and active enemies are ({@link #beginRetain}, {@link #retain},
+ * {@link #endRetain}); chunks around them are loaded ahead of time and stamped as used, and when
+ * more chunks are resident than the memory budget allows the least recently stamped ones are
+ * evicted. Modified chunks are written to the save directory on eviction, or stay resident
+ * when there is none.
+ * <p>
+ * Loads may come from several raycast threads at once and are serialised on this object. A
+ * chunk's tiles are filled before it is published, so readers that find it without locking see
+ * them complete. Eviction runs on the simulation thread between frames.
+ */
+public class ChunkedTileLayer implements TileLayer {
+    public static final int CHUNK_SHIFT = 6;
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    public static final int CHUNK_BYTES = CHUNK_SIZE * CHUNK_SIZE;
+
+    @Getter
+    private final int width;
+    @Getter
+    private final int height;
+    @Getter
+    private final int chunksX;
+    @Getter
+    private final int chunksY;
+    @Getter
+    private final int maxResidentChunks;
+
+    private final ChunkGenerator generator;
+    // Null when modified chunks cannot be saved and so are never evicted
+    private final Path saveDirectory;
+
+    private final Chunk[] chunks;
+    private final List<Chunk> resident = new ArrayList<>();
+
+    // Advanced by beginRetain, once per tick
+    private long clock;
+
+    @Getter
+    private long chunksLoaded;
+    @Getter
+    private long chunksEvicted;
+    @Getter
+    private long chunksSaved;
+
+    public ChunkedTileLayer(int width, int height, ChunkGenerator generator, Path saveDirectory, long memoryBudgetBytes) {
+        this.width = width;
+        this.height = height;
+        this.chunksX = (width + CHUNK_MASK) >> CHUNK_SHIFT;
+        this.chunksY = (height + CHUNK_MASK) >> CHUNK_SHIFT;
+        this.maxResidentChunks = (int) Math.max(1, Math.min(Integer.MAX_VALUE, memoryBudgetBytes / CHUNK_BYTES));
+        this.generator = generator;
+        this.saveDirectory = saveDirectory;
+        this.chunks = new Chunk[chunksX * chunksY];
+    }
+
+    @Override
+    public int get(int x, int y) {
+        return chunk(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT).tiles[(y & CHUNK_MASK) << CHUNK_SHIFT | x & CHUNK_MASK] & 0xFF;
+    }
+
+    @Override
+    public void set(int x, int y, int tile) {
+        Chunk chunk = chunk(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT);
+        chunk.tiles[(y & CHUNK_MASK) << CHUNK_SHIFT | x & CHUNK_MASK] = (byte) tile;
+        chunk.dirty = true;
+    }
+
+    public synchronized int getResidentChunks() {
+        return resident.size();
+    }
+
+    /**
+     * Starts a new residency round; chunks not retained before {@link #endRetain} become
+     * candidates for eviction.
+     */
+    public void beginRetain() {
+        clock++;
+    }
+
+    /**
+     * Keeps the chunks within {@code radius} chunks of tile (x, y) resident, loading them now
+     * if needed.
+     */
+    public void retain(int x, int y, int radius) {
+        int centerX = Math.floorDiv(x, CHUNK_SIZE);
+        int centerY = Math.floorDiv(y, CHUNK_SIZE);
+        for (int cy = Math.max(0, centerY - radius); cy <= Math.min(chunksY - 1, centerY + radius); cy++) {
+            for (int cx = Math.max(0, centerX - radius); cx <= Math.min(chunksX - 1, centerX + radius); cx++) {
+                chunk(cx, cy).lastUsed = clock;
+            }
+        }
+    }
+
+    /**
+     * Evicts least recently retained chunks until the resident set fits the budget. Chunks
+     * retained this round are never evicted, so the budget is exceeded rather than thrashed when
+     * the active area alone is larger.
+     */
+    public synchronized void endRetain() {
+        if (resident.size() <= maxResidentChunks) return;
+
+        List<Chunk> candidates = new ArrayList<>();
+        for (Chunk chunk : resident) {
+            if (chunk.lastUsed != clock && (!chunk.dirty || saveDirectory != null)) {
+                candidates.add(chunk);
+            }
+        }
+        candidates.sort(Comparator.comparingLong(chunk -> chunk.lastUsed));
+
+        int excess = resident.size() - maxResidentChunks;
+        for (int i = 0; i < candidates.size() && i < excess; i++) {
+            evict(candidates.get(i));
+        }
+        resident.removeIf(chunk -> chunks[chunk.index] != chunk);
+    }
+
+    /**
+     * Writes every modified resident chunk to the save directory.
+     */
+    public synchronized void saveAll() {
+        if (saveDirectory == null) return;
+        for (Chunk chunk : resident) {
+            if (chunk.dirty) save(chunk);
+        }
+    }
+
+    private Chunk chunk(int cx, int cy) {
+        Chunk chunk = chunks[cy * chunksX + cx];
+        return chunk != null ? chunk : load(cx, cy);
+    }
+
+    private synchronized Chunk load(int cx, int cy) {
+        int index = cy * chunksX + cx;
+        Chunk chunk = chunks[index];
+        if (chunk != null) return chunk;
+
+        byte[] tiles;
+        Path file = saveDirectory != null ? chunkFile(cx, cy) : null;
+        try {
+            if (file != null && Files.exists(file)) {
+                tiles = Files.readAllBytes(file);
+                if (tiles.length != CHUNK_BYTES) {
+                    throw new IOException(file + " is not a chunk");
+                }
+            } else {
+                tiles = new byte[CHUNK_BYTES];
+                generator.generate(cx, cy, tiles);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load chunk " + cx + "," + cy, e);
+        }
+
+        chunk = new Chunk(index, cx, cy, tiles);
+        chunk.lastUsed = clock;
+        resident.add(chunk);
+        chunks[index] = chunk;
+        chunksLoaded++;
+        return chunk;
+    }
+
+    private void evict(Chunk chunk) {
+        if (chunk.dirty) save(chunk);
+        chunks[chunk.index] = null;
+        chunksEvicted++;
+    }
+
+    private void save(Chunk chunk) {
+        try {
+            Files.createDirectories(saveDirectory);
+            Files.write(chunkFile(chunk.x, chunk.y), chunk.tiles);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not save chunk " + chunk.x + "," + chunk.y, e);
+        }
+        chunk.dirty = false;
+        chunksSaved++;
+    }
+
+    private Path chunkFile(int cx, int cy) {
+        return saveDirectory.resolve("chunk_" + cx + "_" + cy + ".bin");
+    }
+
+    private static class Chunk {
+        final int index;
+        final int x;
+        final int y;
+        final byte[] tiles;
+        long lastUsed;
+        boolean dirty;
+
+        Chunk(int index, int x, int y, byte[] tiles) {
+            this.index = index;
+            this.x = x;
+            this.y = y;
+            this.tiles = tiles;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.wolfenstein.games.objects;
+
+import java.util.Arrays;
+
+/**
+ * Uniform spatial hash of enemies keyed by the map tile they stand on.
+ * <p>
+ * Enemies are the int ids of an {@link EnemyStore}. Each bucket is an intrusive doubly-linked
+ * list threaded through per-id link arrays, so adding, removing and moving an enemy is O(1) and
+ * allocation-free, and "is this tile occupied" only walks the enemies that hash to the same
+ * bucket instead of every enemy. Memory grows with the number of enemies, not with the size of
+ * the map.
+ * <p>
+ * {@link EnemyStore} keeps the grid in sync; it is not meant to be edited directly.
+ */
+public class EnemyGrid {
+    private static final int MIN_BUCKETS = 64;
+    private static final int NONE = -1;
+
+    private int[] buckets;
+    private int mask;
+    private int size;
+
+    // Per enemy id: the tile it is filed under and its neighbours in that bucket
+    private int[] tileX;
+    private int[] tileY;
+    private int[] prevInCell;
+    private int[] nextInCell;
+
+    public EnemyGrid() {
+        this(MIN_BUCKETS);
+    }
+
+    public EnemyGrid(int expectedEnemies) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_BUCKETS, expectedEnemies * 2) - 1) << 1;
+        buckets = new int[capacity];
+        Arrays.fill(buckets, NONE);
+        mask = capacity - 1;
+        tileX = new int[capacity];
+        tileY = new int[capacity];
+        prevInCell = new int[capacity];
+        nextInCell = new int[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isOccupied(int x, int y) {
+        return firstAt(x, y) != NONE;
+    }
+
+    public boolean isOccupiedByOther(int x, int y, int self) {
+        for (int id = buckets[bucket(x, y)]; id != NONE; id = nextInCell[id]) {
+            if (id != self && tileX[id] == x && tileY[id] == y) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Id of some enemy standing on tile (x, y), or -1 if the tile is free.
+     */
+    public int firstAt(int x, int y) {
+        for (int id = buckets[bucket(x, y)]; id != NONE; id = nextInCell[id]) {
+            if (tileX[id] == x && tileY[id] == y) return id;
+        }
+        return NONE;
+    }
+
+    void add(int id, int x, int y) {
+        if (id >= tileX.length) growLinks(Math.max(id + 1, tileX.length * 2));
+        if (size >= buckets.length) resize(buckets.length << 1);
+        link(id, x, y);
+        size++;
+    }
+
+    void remove(int id) {
+        unlink(id);
+        size--;
+    }
+
+    /**
+     * Re-files the enemy if it moved onto another tile.
+     */
+    void move(int id, int x, int y) {
+        if (tileX[id] != x || tileY[id] != y) {
+            unlink(id);
+            link(id, x, y);
+        }
+    }
+
+    /**
+     * Gives the enemy filed as {@code from} the id {@code to}, which must not be in the grid.
+     */
+    void relabel(int from, int to) {
+        int x = tileX[from];
+        int y = tileY[from];
+        unlink(from);
+        link(to, x, y);
+    }
+
+    void clear() {
+        Arrays.fill(buckets, NONE);
+        size = 0;
+    }
+
+    private int bucket(int x, int y) {
+        int h = x * 0x9E3779B1 ^ y * 0x85EBCA77;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void link(int id, int x, int y) {
+        int b = bucket(x, y);
+        int head = buckets[b];
+        tileX[id] = x;
+        tileY[id] = y;
+        prevInCell[id] = NONE;
+        nextInCell[id] = head;
+        if (head != NONE) prevInCell[head] = id;
+        buckets[b] = id;
+    }
+
+    private void unlink(int id) {
+        int prev = prevInCell[id];
+        int next = nextInCell[id];
+        if (prev != NONE) {
+            nextInCell[prev] = next;
+        } else {
+            buckets[bucket(tileX[id], tileY[id])] = next;
+        }
+        if (next != NONE) prevInCell[next] = prev;
+    }
+
+    private void growLinks(int capacity) {
+        tileX = Arrays.copyOf(tileX, capacity);
+        tileY = Arrays.copyOf(tileY, capacity);
+        prevInCell = Arrays.copyOf(prevInCell, capacity);
+        nextInCell = Arrays.copyOf(nextInCell, capacity);
+    }
+
+    private void resize(int capacity) {
+        int[] old = buckets;
+        buckets = new int[capacity];
+        Arrays.fill(buckets, NONE);
+        mask = capacity - 1;
+        for (int head : old) {
+            for (int id = head; id != NONE; ) {
+                int next = nextInCell[id];
+                link(id, tileX[id], tileY[id]);
+                id = next;
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.wolfenstein.games.objects;
+
+import java.util.Arrays;
+
+/**
+ * All live enemies, stored as parallel primitive arrays (structure of arrays) and addressed by
+ * index {@code 0 <= i < size()}.
+ * <p>
+ * Removing an enemy moves the last one into its slot, so ids are only stable until the next
+ * removal. The store keeps its {@link EnemyGrid} in sync: use {@link #moveTo} rather than
+ * writing positions any other way. Capacity doubles when full and is never released.
+ */
+public class EnemyStore {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final EnemyState[] STATES = EnemyState.values();
+
+    private static final double DEFAULT_SPEED = 0.025;
+    private static final double DEFAULT_HEALTH = 20.0;
+    private static final double DEFAULT_DAMAGE = 0.1;
+    private static final double DEFAULT_SHOOT_INTERVAL = 2.0;
+    private static final double DEFAULT_ATTACK_RANGE = 6.0;
+    private static final double DEFAULT_CHASING_RANGE = 10.0;
+
+    private final EnemyGrid grid = new EnemyGrid();
+    private int size;
+
+    private double[] x;
+    private double[] y;
+    // Position at the previous simulation tick, for render interpolation
+    private double[] prevX;
+    private double[] prevY;
+    private double[] dirX;
+    private double[] dirY;
+    private double[] speed;
+    private byte[] state;
+    private double[] health;
+    private double[] damage;
+    private double[] shootCooldown;
+    private double[] shootInterval;
+    private double[] attackRange;
+    private double[] chasingRange;
+
+    public EnemyStore() {
+        int capacity = INITIAL_CAPACITY;
+        x = new double[capacity];
+        y = new double[capacity];
+        prevX = new double[capacity];
+        prevY = new double[capacity];
+        dirX = new double[capacity];
+        dirY = new double[capacity];
+        speed = new double[capacity];
+        state = new byte[capacity];
+        health = new double[capacity];
+        damage = new double[capacity];
+        shootCooldown = new double[capacity];
+        shootInterval = new double[capacity];
+        attackRange = new double[capacity];
+        chasingRange = new double[capacity];
+    }
+
+    /**
+     * Adds a patrolling enemy with default stats at (x, y), heading +y, and returns its id.
+     */
+    public int spawn(double x, double y) {
+        if (size == this.x.length) {
+            grow();
+        }
+        int i = size++;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.prevX[i] = x;
+        this.prevY[i] = y;
+        this.dirX[i] = 0;
+        this.dirY[i] = 1;
+        this.speed[i] = DEFAULT_SPEED;
+        this.state[i] = (byte) EnemyState.PATROL.ordinal();
+        this.health[i] = DEFAULT_HEALTH;
+        this.damage[i] = DEFAULT_DAMAGE;
+        this.shootCooldown[i] = 0.0;
+        this.shootInterval[i] = DEFAULT_SHOOT_INTERVAL;
+        this.attackRange[i] = DEFAULT_ATTACK_RANGE;
+        this.chasingRange[i] = DEFAULT_CHASING_RANGE;
+        grid.add(i, (int) x, (int) y);
+        return i;
+    }
+
+    /**
+     * Removes enemy {@code i} by moving the last enemy into its slot.
+     */
+    public void remove(int i) {
+        grid.remove(i);
+        int last = --size;
+        if (i != last) {
+            x[i] = x[last];
+            y[i] = y[last];
+            prevX[i] = prevX[last];
+            prevY[i] = prevY[last];
+            dirX[i] = dirX[last];
+            dirY[i] = dirY[last];
+            speed[i] = speed[last];
+            state[i] = state[last];
+            health[i] = health[last];
+            damage[i] = damage[last];
+            shootCooldown[i] = shootCooldown[last];
+            shootInterval[i] = shootInterval[last];
+            attackRange[i] = attackRange[last];
+            chasingRange[i] = chasingRange[last];
+            grid.relabel(last, i);
+        }
+    }
+
+    /**
+     * Removes every dead enemy and returns how many there were.
+     */
+    public int removeDead() {
+        int removed = 0;
+        // Back to front, so the enemy swapped into a freed slot has already been checked
+        for (int i = size - 1; i >= 0; i--) {
+            if (health[i] <= 0) {
+                remove(i);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public void clear() {
+        size = 0;
+        grid.clear();
+    }
+
+    public void savePreviousPositions() {
+        System.arraycopy(x, 0, prevX, 0, size);
+        System.arraycopy(y, 0, prevY, 0, size);
+    }
+
+    /**
+     * Moves enemy {@code i} and re-files it in the grid.
+     */
+    public void moveTo(int i, double x, double y) {
+        this.x[i] = x;
+        this.y[i] = y;
+        grid.move(i, (int) x, (int) y);
+    }
+
+    public EnemyGrid getGrid() {
+        return grid;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return x.length;
+    }
+
+    public double getX(int i) { return x[i]; }
+    public double getY(int i) { return y[i]; }
+    public double getPrevX(int i) { return prevX[i]; }
+    public double getPrevY(int i) { return prevY[i]; }
+    public double getDirX(int i) { return dirX[i]; }
+    public double getDirY(int i) { return dirY[i]; }
+    public double getSpeed(int i) { return speed[i]; }
+    public EnemyState getState(int i) { return STATES[state[i]]; }
+    public double getHealth(int i) { return health[i]; }
+    public double getDamage(int i) { return damage[i]; }
+    public double getShootCooldown(int i) { return shootCooldown[i]; }
+    public double getShootInterval(int i) { return shootInterval[i]; }
+    public double getAttackRange(int i) { return attackRange[i]; }
+    public double getChasingRange(int i) { return chasingRange[i]; }
+    public boolean isDead(int i) { return health[i] <= 0; }
+
+    public void setDirection(int i, double dirX, double dirY) {
+        this.dirX[i] = dirX;
+        this.dirY[i] = dirY;
+    }
+
+    public void setState(int i, EnemyState state) { this.state[i] = (byte) state.ordinal(); }
+    public void setHealth(int i, double health) { this.health[i] = health; }
+    public void setShootCooldown(int i, double shootCooldown) { this.shootCooldown[i] = shootCooldown; }
+
+    private void grow() {
+        int capacity = x.length * 2;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        prevX = Arrays.copyOf(prevX, capacity);
+        prevY = Arrays.copyOf(prevY, capacity);
+        dirX = Arrays.copyOf(dirX, capacity);
+        dirY = Arrays.copyOf(dirY, capacity);
+        speed = Arrays.copyOf(speed, capacity);
+        state = Arrays.copyOf(state, capacity);
+        health = Arrays.copyOf(health, capacity);
+        damage = Arrays.copyOf(damage, capacity);
+        shootCooldown = Arrays.copyOf(shootCooldown, capacity);
+        shootInterval = Arrays.copyOf(shootInterval, capacity);
+        attackRange = Arrays.copyOf(attackRange, capacity);
+        chasingRange = Arrays.copyOf(chasingRange, capacity);
+    }
+}
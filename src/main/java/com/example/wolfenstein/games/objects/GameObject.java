@@ -26,6 +26,10 @@ public enum GameObject {
         this.imageName = imageName;
     }
 
+    public int getValue() {
+        return value;
+    }
+
     public String getImagePathForWalls() {
         return "/com/example/wolfenstein/images/walls/" + imageName;
     }
@@ -0,0 +1,15 @@
+package com.example.wolfenstein.games.objects;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One row of a level table: a tile position and the tile id found or spawned there.
+ */
+@Getter
+@AllArgsConstructor
+public class LevelEntry {
+    private final int x;
+    private final int y;
+    private final int tile;
+}
@@ -0,0 +1,222 @@
+package com.example.wolfenstein.games.objects;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary level format, little-endian.
+ * <pre>
+ *  0  int    magic "WLVL"
+ *  4  short  version
+ *  6  short  header size in bytes
+ *  8  int    width, height          (tiles, without border)
+ * 16  int    player start x, y      (tile)
+ * 24  int    tile layer offset
+ * 28  int    spawn count, offset
+ * 36  int    door count, offset
+ * 44  int    pickup count, offset
+ * </pre>
+ * The tile layer is (width + 2) * (height + 2) tile ids, one byte each, row by row including a
+ * solid border: exactly the layout {@link Map} works on, so it is memory-mapped rather than
+ * copied onto the heap. Each table entry is three ints: x, y and tile id. The player start and
+ * the table entries are tiles inside the border. Readers skip header fields past the ones they
+ * know; the tile layer and the tables start after the declared header.
+ * <p>
+ * The mapping is private (copy-on-write), so opening doors changes the map in memory but never
+ * the file.
+ */
+public final class LevelFile {
+    public static final int MAGIC = 'W' | 'L' << 8 | 'V' << 16 | 'L' << 24;
+    public static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 52;
+    private static final int ENTRY_SIZE = 12;
+
+    private LevelFile() {
+    }
+
+    public static Map read(Path path) throws IOException {
+        // A private mapping needs a writable channel even though the file is never written
+        boolean writable = Files.isWritable(path);
+        try (FileChannel channel = writable
+                ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            ByteBuffer header = readFully(channel, 0, HEADER_SIZE, fileSize, path);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException(path + " is not a level file");
+            }
+            int version = header.getShort(4);
+            if (version != VERSION) {
+                throw new IOException(path + " has unsupported level version " + version);
+            }
+            int headerSize = header.getShort(6);
+            if (headerSize < HEADER_SIZE || headerSize > fileSize) {
+                throw new IOException(path + " has invalid header size " + headerSize);
+            }
+
+            int width = header.getInt(8);
+            int height = header.getInt(12);
+            if (width <= 0 || height <= 0) {
+                throw new IOException(path + " has invalid size " + width + "x" + height);
+            }
+            long tileBytes = (long) (width + 2) * (height + 2);
+            if (tileBytes > Integer.MAX_VALUE) {
+                throw new IOException(path + " is too large: " + width + "x" + height);
+            }
+            int startX = header.getInt(16);
+            int startY = header.getInt(20);
+            if (!inside(startX, startY, width, height)) {
+                throw new IOException(path + " has the player start outside the level: " + startX + "," + startY);
+            }
+            int tileOffset = header.getInt(24);
+            checkSection(tileOffset, headerSize, path);
+            checkRange(tileOffset, tileBytes, fileSize, path);
+
+            ByteBuffer tiles;
+            if (writable) {
+                tiles = channel.map(FileChannel.MapMode.PRIVATE, tileOffset, tileBytes);
+            } else {
+                // Still kept off the heap
+                tiles = readFully(channel, tileOffset, (int) tileBytes, fileSize, path);
+                ByteBuffer direct = ByteBuffer.allocateDirect((int) tileBytes);
+                direct.put(tiles).clear();
+                tiles = direct;
+            }
+            checkBorder(tiles, width, height, path);
+
+            List<LevelEntry> spawns = readTable(channel, header, 28, width, height, fileSize, path);
+            List<LevelEntry> doors = readTable(channel, header, 36, width, height, fileSize, path);
+            List<LevelEntry> pickups = readTable(channel, header, 44, width, height, fileSize, path);
+
+            return new Map(new BufferTileLayer(width, height, tiles), startX, startY, spawns, doors, pickups);
+        }
+    }
+
+    public static void write(Map map, Path path) throws IOException {
+        if (map.getTiles() == null) {
+            throw new IllegalArgumentException("Only maps resident in one buffer can be written");
+        }
+        ByteBuffer tiles = map.getTiles().duplicate().clear();
+        int tileOffset = HEADER_SIZE;
+        int spawnOffset = tileOffset + tiles.capacity();
+        int doorOffset = spawnOffset + map.getSpawns().size() * ENTRY_SIZE;
+        int pickupOffset = doorOffset + map.getDoors().size() * ENTRY_SIZE;
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC)
+                .putShort((short) VERSION)
+                .putShort((short) HEADER_SIZE)
+                .putInt(map.getWidth())
+                .putInt(map.getHeight())
+                .putInt((int) map.getPlayerStartX())
+                .putInt((int) map.getPlayerStartY())
+                .putInt(tileOffset)
+                .putInt(map.getSpawns().size()).putInt(spawnOffset)
+                .putInt(map.getDoors().size()).putInt(doorOffset)
+                .putInt(map.getPickups().size()).putInt(pickupOffset)
+                .flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header);
+            writeFully(channel, tiles);
+            writeFully(channel, table(map.getSpawns()));
+            writeFully(channel, table(map.getDoors()));
+            writeFully(channel, table(map.getPickups()));
+        }
+    }
+
+    private static ByteBuffer table(List<LevelEntry> entries) {
+        ByteBuffer buffer = ByteBuffer.allocate(entries.size() * ENTRY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        for (LevelEntry entry : entries) {
+            buffer.putInt(entry.getX()).putInt(entry.getY()).putInt(entry.getTile());
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Reads the table whose count and offset are at {@code field} in the header.
+     */
+    private static List<LevelEntry> readTable(FileChannel channel, ByteBuffer header, int field, int width, int height,
+                                              long fileSize, Path path) throws IOException {
+        int count = header.getInt(field);
+        int offset = header.getInt(field + 4);
+        if (count < 0 || count > Integer.MAX_VALUE / ENTRY_SIZE) {
+            throw new IOException(path + " has an invalid table size " + count);
+        }
+        checkSection(offset, header.getShort(6), path);
+        ByteBuffer buffer = readFully(channel, offset, count * ENTRY_SIZE, fileSize, path);
+        List<LevelEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int x = buffer.getInt();
+            int y = buffer.getInt();
+            if (!inside(x, y, width, height)) {
+                throw new IOException(path + " has a table entry outside the level: " + x + "," + y);
+            }
+            entries.add(new LevelEntry(x, y, buffer.getInt()));
+        }
+        return entries;
+    }
+
+    private static boolean inside(int x, int y, int width, int height) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long offset, int length, long fileSize, Path path)
+            throws IOException {
+        checkRange(offset, length, fileSize, path);
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException(path + " is truncated");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void checkRange(long offset, long length, long fileSize, Path path) throws IOException {
+        if (offset < 0 || offset + length > fileSize) {
+            throw new IOException(path + " is truncated");
+        }
+    }
+
+    private static void checkSection(int offset, int headerSize, Path path) throws IOException {
+        if (offset < headerSize) {
+            throw new IOException(path + " has a section inside its header");
+        }
+    }
+
+    // The renderer walks rays without bounds checks and relies on a solid border to stop them
+    private static void checkBorder(ByteBuffer tiles, int width, int height, Path path) throws IOException {
+        int stride = width + 2;
+        int last = height + 1;
+        for (int x = 0; x < stride; x++) {
+            if (!solid(tiles, x) || !solid(tiles, last * stride + x)) {
+                throw new IOException(path + " has a gap in its border");
+            }
+        }
+        for (int y = 1; y < last; y++) {
+            if (!solid(tiles, y * stride) || !solid(tiles, y * stride + stride - 1)) {
+                throw new IOException(path + " has a gap in its border");
+            }
+        }
+    }
+
+    private static boolean solid(ByteBuffer tiles, int index) {
+        return (TileFlags.of(tiles.get(index)) & TileFlags.SOLID) != 0;
+    }
+}
@@ -1,12 +1,94 @@
 package com.example.wolfenstein.games.objects;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 public class Map {
-    private final int [][] mapData;
+    // Chunks kept loaded around the player on streamed maps
+    private static final int PLAYER_RETAIN_RADIUS = 2;
+
+    private final TileLayer layer;
+    // Set when the whole map is resident in one buffer, see getTiles()
+    private final BufferTileLayer bufferLayer;
+    private final int width;
+    private final int height;
+
+    private final int playerStartX;
+    private final int playerStartY;
+
+    // Enemy spawns, doors and pickups as listed in the level file
+    private final List<LevelEntry> spawns;
+    private final List<LevelEntry> doors;
+    private final List<LevelEntry> pickups;
+
+    // Bumped whenever a change can alter what blocks sight or movement, e.g. a door opening
+    private int topologyVersion;
+    private final List<TileChangeListener> topologyListeners = new ArrayList<>();
+    // Bumped on every tile change after loading, pickups and enemy markers included
+    private int tileVersion;
+
+    // Created on first use, see getVisibility()
+    private PotentiallyVisibleSet visibility;
 
     public Map() {
+        this(defaultLayout());
+    }
+
+    /**
+     * Builds a map from rows of tile ids; rows shorter than the first are padded with wall.
+     * Enemy markers are moved out of the tile layer into the spawn table and the player starts
+     * on tile (1, 1).
+     */
+    public Map(int[][] layout) {
+        this(new BufferTileLayer(layout[0].length, layout.length, pad(layout)), 1, 1,
+                new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int tile = layer.get(x, y);
+                int flags = TileFlags.of(tile);
+                if (tile == TileFlags.ENEMY) {
+                    spawns.add(new LevelEntry(x, y, tile));
+                    layer.set(x, y, TileFlags.EMPTY);
+                } else if ((flags & (TileFlags.DOOR_FLAG | TileFlags.LOCKED)) != 0) {
+                    doors.add(new LevelEntry(x, y, tile));
+                } else if ((flags & TileFlags.PICKUP) != 0) {
+                    pickups.add(new LevelEntry(x, y, tile));
+                }
+            }
+        }
+    }
+
+    /**
+     * Map over any tile layer, e.g. a {@link ChunkedTileLayer} streamed around the player, with
+     * empty spawn, door and pickup tables.
+     */
+    public Map(TileLayer layer, int playerStartX, int playerStartY) {
+        this(layer, playerStartX, playerStartY, new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+    }
+
+    Map(TileLayer layer, int playerStartX, int playerStartY,
+        List<LevelEntry> spawns, List<LevelEntry> doors, List<LevelEntry> pickups) {
+        this.layer = layer;
+        this.bufferLayer = layer instanceof BufferTileLayer buffer ? buffer : null;
+        this.width = layer.getWidth();
+        this.height = layer.getHeight();
+        this.playerStartX = playerStartX;
+        this.playerStartY = playerStartY;
+        this.spawns = spawns;
+        this.doors = doors;
+        this.pickups = pickups;
+    }
+
+    /**
+     * The level that ships with the game, as rows of tile ids.
+     */
+    public static int[][] defaultLayout() {
         // 0 = empty, 1-16 = wall types, 17 = enemy, 18 = closed door, 19 = exit,
         // 20 = locked door, 21 = Key, 22 = Health, 23 = Ammo, 24 = Chest
-        this.mapData = new int[][]{
+        return new int[][]{
                 { 1, 2, 3, 4, 5, 6, 7, 8, 9,10,11,12,13,14,15,16, 1, 2, 3, 4, 5, 6, 7, 8, 9,10,11,12,13,14,15,16, 1, 2, 3, 4, 5, 6, 7, 8 },
                 { 1, 0, 0,24, 0,17, 0, 0, 0,18, 0, 0,22, 0, 0,23, 0, 0, 0, 0, 0,17, 0, 0, 0, 0, 0, 0, 0, 0,24, 0, 0,21, 0, 0, 0, 0,19, 1 },
                 { 2, 0,21, 0, 1, 0,23, 0, 1, 0,22, 0, 1,24, 0, 1, 0,23, 0, 1, 0, 0, 0,22, 0, 1,24, 0, 1,21, 0, 1, 0,23, 0, 1, 0,24, 0, 2 },
@@ -31,53 +113,209 @@ public class Map {
         };
     }
 
+    private static ByteBuffer pad(int[][] layout) {
+        int width = layout[0].length;
+        int height = layout.length;
+        int stride = width + 2;
+        ByteBuffer tiles = ByteBuffer.allocate(stride * (height + 2));
+        for (int i = 0; i < tiles.capacity(); i++) {
+            tiles.put(i, (byte) TileFlags.FIRST_WALL);
+        }
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < layout[y].length && x < width; x++) {
+                tiles.put((y + 1) * stride + x + 1, (byte) layout[y][x]);
+            }
+        }
+        return tiles;
+    }
+
+    /**
+     * Index of (x, y) in {@link #getTiles()}. Only valid for -1 <= x <= width and
+     * -1 <= y <= height; the outermost ring is the wall border.
+     */
+    public int index(int x, int y) {
+        return (y + 1) * getStride() + x + 1;
+    }
+
+    /**
+     * Raw tile storage for hot loops, read with absolute gets. Neighbouring tiles are at index +-1
+     * and +-{@link #getStride()}; a walk that stops on {@link TileFlags#SOLID} never leaves the
+     * buffer since the border is solid.
+     *
+     * @return null when the map is not resident in one buffer; use {@link #getFlags} instead
+     */
+    public ByteBuffer getTiles() {
+        return bufferLayer != null ? bufferLayer.getBuffer() : null;
+    }
+
+    public int getStride() {
+        return width + 2;
+    }
+
+    public TileLayer getLayer() {
+        return layer;
+    }
+
+    /**
+     * Hash of the size, player start and current tiles, used to check that a replay runs on the
+     * level it was recorded on. Streamed maps hash only their size and start, so the hash does
+     * not page in every chunk.
+     */
+    public long contentHash() {
+        long hash = ((long) width << 32 | height) * 31 + ((long) playerStartX << 32 | playerStartY);
+        ByteBuffer tiles = getTiles();
+        if (tiles != null) {
+            for (int i = 0, end = tiles.limit(); i < end; i++) {
+                hash = hash * 31 + tiles.get(i);
+            }
+        }
+        return hash;
+    }
+
     public int getTile(int x, int y) {
-        if (x < 0 || y < 0 || y >= mapData.length || x >= mapData[0].length) {
-            return 1;
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return TileFlags.FIRST_WALL;
         }
-        return mapData[y][x];
+        return layer.get(x, y);
+    }
+
+    /**
+     * {@link TileFlags} of the tile at (x, y); outside the map reads as wall.
+     */
+    public int getFlags(int x, int y) {
+        return TileFlags.of(getTile(x, y));
     }
 
     public boolean isWall(int x, int y) {
-        int tile = getTile(x, y);
-        return tile >= 1 && tile <= 16;
+        return (getFlags(x, y) & TileFlags.TEXTURED) != 0;
+    }
+
+    /**
+     * Walls: blocks movement and stops rays.
+     */
+    public boolean isSolid(int x, int y) {
+        return (getFlags(x, y) & TileFlags.SOLID) != 0;
     }
 
     public int getWidth() {
-        return mapData[0].length;
+        return width;
     }
 
     public int getHeight() {
-        return mapData.length;
+        return height;
+    }
+
+    public double getPlayerStartX() {
+        return playerStartX + 0.5;
+    }
+
+    public double getPlayerStartY() {
+        return playerStartY + 0.5;
+    }
+
+    public List<LevelEntry> getSpawns() {
+        return Collections.unmodifiableList(spawns);
+    }
+
+    public List<LevelEntry> getDoors() {
+        return Collections.unmodifiableList(doors);
+    }
+
+    public List<LevelEntry> getPickups() {
+        return Collections.unmodifiableList(pickups);
+    }
+
+    public int getTopologyVersion() {
+        return topologyVersion;
+    }
+
+    public int getTileVersion() {
+        return tileVersion;
+    }
+
+    public void addTopologyListener(TileChangeListener listener) {
+        topologyListeners.add(listener);
+    }
+
+    /**
+     * Tile-to-tile visibility, created on first use. The first call must not race with others,
+     * e.g. make it before reading visibility from several threads.
+     */
+    public PotentiallyVisibleSet getVisibility() {
+        if (visibility == null) {
+            visibility = new PotentiallyVisibleSet(this);
+            addTopologyListener(visibility::tileChanged);
+        }
+        return visibility;
+    }
+
+    public boolean blocksSight(int x, int y) {
+        return (getFlags(x, y) & TileFlags.BLOCKS_SIGHT) != 0;
     }
 
 
     public void removeEnemy(int x, int y) {
-        if (getTile(x, y) == 17) {
-            mapData[y][x] = 0;
+        if (isEnemy(x, y)) {
+            layer.set(x, y, TileFlags.EMPTY);
+            tileVersion++;
         }
     }
 
     public boolean isEnemy(int x, int y) {
-        return getTile(x, y) == 17;
+        return getTile(x, y) == TileFlags.ENEMY;
     }
-    public boolean isDoor(int x, int y) { return getTile(x, y) == 18; }
-    public boolean isExit(int x, int y) { return getTile(x, y) == 19; }
-    public boolean isLockedDoor(int x, int y) { return getTile(x, y) == 20; }
-    public boolean isKey(int x, int y) { return getTile(x, y) == 21; }
-    public boolean isHealth(int x, int y) { return getTile(x, y) == 22; }
-    public boolean isAmmo(int x, int y) { return getTile(x, y) == 23; }
+    public boolean isDoor(int x, int y) { return (getFlags(x, y) & TileFlags.DOOR_FLAG) != 0; }
+    public boolean isExit(int x, int y) { return (getFlags(x, y) & TileFlags.EXIT_FLAG) != 0; }
+    public boolean isLockedDoor(int x, int y) { return (getFlags(x, y) & TileFlags.LOCKED) != 0; }
+    public boolean isPickup(int x, int y) { return (getFlags(x, y) & TileFlags.PICKUP) != 0; }
+    public boolean isKey(int x, int y) { return getTile(x, y) == TileFlags.KEY; }
+    public boolean isHealth(int x, int y) { return getTile(x, y) == TileFlags.HEALTH; }
+    public boolean isAmmo(int x, int y) { return getTile(x, y) == TileFlags.AMMO; }
 
     public void openDoor(int x, int y) {
-        if (isDoor(x, y)) mapData[y][x] = 0;
+        if (isDoor(x, y)) {
+            layer.set(x, y, TileFlags.EMPTY);
+            topologyChanged(x, y);
+        }
     }
 
     public void unlockDoor(int x, int y) {
-        if (isLockedDoor(x, y)) mapData[y][x] = 18;
+        if (isLockedDoor(x, y)) {
+            layer.set(x, y, TileFlags.DOOR);
+            topologyChanged(x, y);
+        }
+    }
+
+    private void topologyChanged(int x, int y) {
+        topologyVersion++;
+        tileVersion++;
+        for (TileChangeListener listener : topologyListeners) {
+            listener.tileChanged(x, y);
+        }
     }
 
     public void collectItem(int x, int y) {
-        if (isKey(x, y) || isHealth(x, y) || isAmmo(x, y)) mapData[y][x] = 0;
+        if (isPickup(x, y)) {
+            layer.set(x, y, TileFlags.EMPTY);
+            tileVersion++;
+        }
+    }
+
+    /**
+     * Tells a streamed map where the action is, once per tick: chunks around the player and
+     * around each live enemy stay loaded, colder ones may be evicted. No-op for resident maps.
+     */
+    public void updateResidency(Player player, EnemyStore enemies) {
+        if (!(layer instanceof ChunkedTileLayer chunked)) return;
+
+        chunked.beginRetain();
+        chunked.retain((int) player.getPosX(), (int) player.getPosY(), PLAYER_RETAIN_RADIUS);
+        for (int i = 0; i < enemies.size(); i++) {
+            if (!enemies.isDead(i)) {
+                chunked.retain((int) enemies.getX(i), (int) enemies.getY(i), 0);
+            }
+        }
+        chunked.endRetain();
     }
 
 }
@@ -1,9 +1,9 @@
 package com.example.wolfenstein.games.objects;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.util.List;
 import java.util.logging.Logger;
 
 @Getter
@@ -23,6 +23,14 @@ public class Player {
     private double planeX;
     private double planeY;
 
+    // Camera at the previous simulation tick, for render interpolation
+    private double prevPosX;
+    private double prevPosY;
+    private double prevDirX;
+    private double prevDirY;
+    private double prevPlaneX;
+    private double prevPlaneY;
+
     private double health;
     private double damage;
 
@@ -33,6 +41,23 @@ public class Player {
     private int score = 0;
     private int lives = 3;
 
+    // Rotation steps between renormalisations of dir and plane
+    private static final int RENORMALIZE_INTERVAL = 64;
+
+    // sin / cos of the last rotation angle; every tick turns by the same angle
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private double cachedAngle = Double.NaN;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private double cachedSin;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private double cachedCos;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private int rotationsSinceRenormalize;
+
     public Player(double startX, double startY) {
         this.posX = startX;
         this.posY = startY;
@@ -46,6 +71,17 @@ public class Player {
 
         this.health = 100;
         this.damage = 1.0f;
+
+        savePreviousState();
+    }
+
+    public final void savePreviousState() {
+        prevPosX = posX;
+        prevPosY = posY;
+        prevDirX = dirX;
+        prevDirY = dirY;
+        prevPlaneX = planeX;
+        prevPlaneY = planeY;
     }
 
     public boolean isDead() {
@@ -56,61 +92,85 @@ public class Player {
         health -= amount;
     }
 
-    public void moveForward(double speed, Map map, List<Enemy> enemyList) {
+    public void moveForward(double speed, Map map, EnemyGrid enemyGrid) {
         double newX = posX + dirX * speed;
         double newY = posY + dirY * speed;
 
-        if (!map.isWall((int) newX, (int) posY) && !enemyAt((int)newX, (int)posY, enemyList))
+        if (!map.isSolid((int) newX, (int) posY) && !enemyGrid.isOccupied((int)newX, (int)posY))
             posX = newX;
-        if (!map.isWall((int) posX, (int) newY) && !enemyAt((int)posX, (int)newY, enemyList))
+        if (!map.isSolid((int) posX, (int) newY) && !enemyGrid.isOccupied((int)posX, (int)newY))
             posY = newY;
     }
 
-    public void moveBackward(double speed, Map map, List<Enemy> enemyList) {
+    public void moveBackward(double speed, Map map, EnemyGrid enemyGrid) {
         double newX = posX - dirX * speed;
         double newY = posY - dirY * speed;
 
-        if (!map.isWall((int) newX, (int) posY) && !enemyAt((int)newX, (int)posY, enemyList))
+        if (!map.isSolid((int) newX, (int) posY) && !enemyGrid.isOccupied((int)newX, (int)posY))
             posX = newX;
-        if (!map.isWall((int) posX, (int) newY) && !enemyAt((int)posX, (int)newY, enemyList))
+        if (!map.isSolid((int) posX, (int) newY) && !enemyGrid.isOccupied((int)posX, (int)newY))
             posY = newY;
     }
 
-    private boolean enemyAt(int x, int y, List<Enemy> enemyList) {
-        for (Enemy enemy : enemyList)
-            if ((int)enemy.getX() == x && (int)enemy.getY() == y)
-                return true;
-        return false;
-    }
-
-    // Rotation of a 2D vector using a rotation matrix
     public void rotateLeft(double rotateSpeed) {
-        double oldDirX = dirX;
-        double oldPlaneX = planeX;
-
-        dirX = dirX * Math.cos(rotateSpeed) - dirY * Math.sin(rotateSpeed);
-        dirY = oldDirX * Math.sin(rotateSpeed) + dirY * Math.cos(rotateSpeed);
-
-        planeX = planeX * Math.cos(rotateSpeed) - planeY * Math.sin(rotateSpeed);
-        planeY = oldPlaneX * Math.sin(rotateSpeed) + planeY * Math.cos(rotateSpeed);
+        rotate(rotateSpeed, 1);
     }
 
     public void rotateRight(double rotateSpeed) {
+        rotate(rotateSpeed, -1);
+    }
+
+    // Rotation of a 2D vector using a rotation matrix, sin(-a) = -sin(a) turns the other way
+    private void rotate(double angle, int direction) {
+        if (angle != cachedAngle) {
+            cachedAngle = angle;
+            cachedSin = Math.sin(angle);
+            cachedCos = Math.cos(angle);
+        }
+        double sin = cachedSin * direction;
+        double cos = cachedCos;
         double oldDirX = dirX;
         double oldPlaneX = planeX;
 
-        dirX = dirX * Math.cos(-rotateSpeed) - dirY * Math.sin(-rotateSpeed);
-        dirY = oldDirX * Math.sin(-rotateSpeed) + dirY * Math.cos(-rotateSpeed);
+        dirX = dirX * cos - dirY * sin;
+        dirY = oldDirX * sin + dirY * cos;
 
-        planeX = planeX * Math.cos(-rotateSpeed) - planeY * Math.sin(-rotateSpeed);
-        planeY = oldPlaneX * Math.sin(-rotateSpeed) + planeY * Math.cos(-rotateSpeed);
+        planeX = planeX * cos - planeY * sin;
+        planeY = oldPlaneX * sin + planeY * cos;
+
+        if (++rotationsSinceRenormalize >= RENORMALIZE_INTERVAL) {
+            renormalize();
+        }
     }
 
-    public Bullet shoot() {
+    /**
+     * Undoes the rounding error repeated rotations build up: dir back to unit length and plane
+     * back to perpendicular to it. Both are scaled by the same factor, so the FOV is kept.
+     */
+    private void renormalize() {
+        rotationsSinceRenormalize = 0;
+        double scale = 1 / Math.sqrt(dirX * dirX + dirY * dirY);
+        dirX *= scale;
+        dirY *= scale;
+        planeX *= scale;
+        planeY *= scale;
+
+        double along = planeX * dirX + planeY * dirY;
+        planeX -= along * dirX;
+        planeY -= along * dirY;
+    }
+
+    /**
+     * Fires a bullet into {@code bullets} if there is ammo left.
+     *
+     * @return whether a shot was fired
+     */
+    public boolean shoot(BulletSystem bullets) {
         if (ammo > 0) {
             ammo--;
-            return new Bullet(posX, posY, dirX, dirY, 0.02, 10.0);
+            bullets.spawn(posX, posY, dirX, dirY, 0.02, 10.0, BulletSystem.OWNER_PLAYER);
+            return true;
         }
-        return null;
+        return false;
     }
 }
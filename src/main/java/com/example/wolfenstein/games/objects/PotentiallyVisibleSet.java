@@ -0,0 +1,211 @@
+package com.example.wolfenstein.games.objects;
+
+import java.util.Arrays;
+
+/**
+ * Potentially visible set: for a viewing tile, which tiles around it could be seen from
+ * anywhere on it.
+ * <p>
+ * Rows are computed on first use rather than baked with the map, so loading costs nothing and
+ * only the tiles the camera and the player actually stand on are ever computed. A row covers the
+ * square of {@link #RADIUS} tiles around its viewing tile, so its cost and size do not depend on
+ * the map size; tiles further away are reported visible. It is filled by shadowcasting from the
+ * centre and the inset corners of the viewing tile: every tile any part of which an unobstructed
+ * ray from one of those points reaches is marked, which includes every tile
+ * {@link com.example.wolfenstein.games.LineOfSight} can see.
+ * <p>
+ * Recently used rows are cached. A door opening or closing drops the cache, and the rows are
+ * computed again on next use.
+ */
+public class PotentiallyVisibleSet {
+    // Rows cover this many tiles around the viewing tile, further tiles count as visible
+    public static final int RADIUS = 64;
+    private static final int SIZE = RADIUS * 2 + 1;
+    private static final int WORDS = (SIZE * SIZE + 63) >>> 6;
+    // Cached rows, the slot is picked by tile index
+    private static final int CACHE_SLOTS = 64;
+
+    private static final double[] SAMPLE_OFFSETS = {0.5, 0.02, 0.98};
+    // Shrinks every shadow a little so a ray grazing a wall corner still counts as passing
+    private static final double EPSILON = 1e-9;
+
+    private final Map map;
+    private final int width;
+    private final int height;
+    // Rows may be read from several threads; a row is immutable once published
+    private final Row[] cache = new Row[CACHE_SLOTS];
+
+    private long rowsComputed;
+
+    public PotentiallyVisibleSet(Map map) {
+        this.map = map;
+        this.width = map.getWidth();
+        this.height = map.getHeight();
+    }
+
+    /**
+     * Whether anything on tile (toX, toY) could be visible from somewhere on tile (fromX, fromY).
+     * Conservative: coordinates outside the map, or further than {@link #RADIUS} apart, report
+     * true.
+     */
+    public boolean isVisible(int fromX, int fromY, int toX, int toY) {
+        if (!inside(fromX, fromY) || !inside(toX, toY)) return true;
+        int dx = toX - fromX;
+        int dy = toY - fromY;
+        if (Math.abs(dx) > RADIUS || Math.abs(dy) > RADIUS) return true;
+
+        Row row = row(fromX, fromY);
+        if (row == null) return false;
+        int bit = (dy + RADIUS) * SIZE + dx + RADIUS;
+        return (row.bits[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Like {@link #isVisible} but also accepts the eight tiles around (toX, toY), for sprites
+     * that overhang their own tile.
+     */
+    public boolean isVisibleNear(int fromX, int fromY, int toX, int toY) {
+        for (int y = toY - 1; y <= toY + 1; y++) {
+            for (int x = toX - 1; x <= toX + 1; x++) {
+                if (isVisible(fromX, fromY, x, y)) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Computes the row of tile (x, y) now unless it is cached, so that threads reading it next do
+     * not each compute it. Call it from the thread that changes the map.
+     */
+    public void prepare(int x, int y) {
+        if (inside(x, y)) row(x, y);
+    }
+
+    /**
+     * Rows computed so far, cache misses included.
+     */
+    public long getRowsComputed() {
+        return rowsComputed;
+    }
+
+    void tileChanged(int x, int y) {
+        Arrays.fill(cache, null);
+    }
+
+    private boolean inside(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    /**
+     * The row of tile (x, y), or null if the tile itself blocks sight.
+     */
+    private Row row(int x, int y) {
+        if (map.blocksSight(x, y)) return null;
+
+        int tile = y * width + x;
+        int slot = tile & (CACHE_SLOTS - 1);
+        Row row = cache[slot];
+        if (row == null || row.tile != tile) {
+            row = new Row(tile, computeRow(x, y));
+            cache[slot] = row;
+            rowsComputed++;
+        }
+        return row;
+    }
+
+    private long[] computeRow(int x, int y) {
+        long[] bits = new long[WORDS];
+        // Open slope intervals of the column being cast and of the next one, as lo, hi pairs; all
+        // but the last end at a different tile's shadow, so there are at most SIZE + 2
+        double[] open = new double[SIZE * 2 + 4];
+        double[] next = new double[SIZE * 2 + 4];
+        for (double oy : SAMPLE_OFFSETS) {
+            for (double ox : SAMPLE_OFFSETS) {
+                for (int cone = 0; cone < 4; cone++) {
+                    castCone(bits, open, next, x, y, ox, oy, cone);
+                }
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Shadowcasts one quarter turn from point (x + ox, y + oy), marking every tile it reaches.
+     * <p>
+     * The cone is cast in local coordinates: u runs away from the viewing tile along the cone's
+     * axis, v across it, and tile (u, v) covers [u, u + 1] x [v, v + 1] with the viewing tile at
+     * (0, 0). Rays are tracked as slopes v / u from the point; a blocking tile removes the slopes
+     * between its corners from every further column.
+     *
+     * @param cone 0 towards +x, 1 towards -x, 2 towards +y, 3 towards -y
+     */
+    private void castCone(long[] bits, double[] open, double[] next, int x, int y, double ox, double oy, int cone) {
+        boolean alongY = cone >= 2;
+        int sign = (cone & 1) == 0 ? 1 : -1;
+        double ou = alongY ? (sign > 0 ? oy : 1 - oy) : (sign > 0 ? ox : 1 - ox);
+        double ov = alongY ? ox : oy;
+
+        open[0] = -1 - EPSILON;
+        open[1] = 1 + EPSILON;
+        int openCount = 1;
+        for (int u = 0; u <= RADIUS && openCount > 0; u++) {
+            // Distance from the point to the near and far side of this column
+            double near = u == 0 ? 0 : u - ou;
+            double far = u + 1 - ou;
+            int nextCount = 0;
+            for (int i = 0; i < openCount; i++) {
+                double lo = open[i * 2];
+                double hi = open[i * 2 + 1];
+                int vLo = Math.max(-RADIUS, (int) Math.floor(ov + lo * (lo < 0 ? far : near) - EPSILON));
+                int vHi = Math.min(RADIUS, (int) Math.floor(ov + hi * (hi > 0 ? far : near) + EPSILON));
+                // Sweep the column in order of slope, splitting the interval at blocking tiles
+                double start = lo;
+                for (int v = vLo; v <= vHi; v++) {
+                    int mapX = x + (alongY ? v : sign * u);
+                    int mapY = y + (alongY ? sign * u : v);
+                    int bit = (mapY - y + RADIUS) * SIZE + mapX - x + RADIUS;
+                    bits[bit >>> 6] |= 1L << bit;
+                    if (u == 0 && v == 0 || !map.blocksSight(mapX, mapY)) continue;
+
+                    double shadowLo = Math.min(Math.min(slope(v, ov, near), slope(v, ov, far)),
+                            Math.min(slope(v + 1, ov, near), slope(v + 1, ov, far))) + EPSILON;
+                    double shadowHi = Math.max(Math.max(slope(v, ov, near), slope(v, ov, far)),
+                            Math.max(slope(v + 1, ov, near), slope(v + 1, ov, far))) - EPSILON;
+                    if (shadowLo > start) {
+                        nextCount = addInterval(next, nextCount, start, Math.min(shadowLo, hi));
+                    }
+                    start = Math.max(start, shadowHi);
+                }
+                if (start < hi) {
+                    nextCount = addInterval(next, nextCount, start, hi);
+                }
+            }
+            double[] swap = open;
+            open = next;
+            next = swap;
+            openCount = nextCount;
+        }
+    }
+
+    // Slope of the ray from the point to the corner at height v, distance u along the axis
+    private static double slope(int v, double ov, double u) {
+        return (v - ov) / u;
+    }
+
+    private static int addInterval(double[] intervals, int count, double lo, double hi) {
+        if (lo >= hi) return count;
+        intervals[count * 2] = lo;
+        intervals[count * 2 + 1] = hi;
+        return count + 1;
+    }
+
+    private static final class Row {
+        final int tile;
+        final long[] bits;
+
+        Row(int tile, long[] bits) {
+            this.tile = tile;
+            this.bits = bits;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.wolfenstein.games.objects;
+
+import java.util.Random;
+
+/**
+ * Procedural arena of 16x16 rooms joined by doors in the middle of each wall, with pickups
+ * scattered on the floor. Every chunk is derived from the seed and its own coordinates only.
+ */
+public class RoomChunkGenerator implements ChunkGenerator {
+    public static final int ROOM_SIZE = 16;
+
+    private final long seed;
+
+    public RoomChunkGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public void generate(int chunkX, int chunkY, byte[] tiles) {
+        int size = ChunkedTileLayer.CHUNK_SIZE;
+        Random random = new Random(seed ^ chunkX * 0x9E3779B97F4A7C15L ^ chunkY * 0xC2B2AE3D27D4EB4FL);
+
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                boolean wallRow = y % ROOM_SIZE == 0;
+                boolean wallColumn = x % ROOM_SIZE == 0;
+                int tile = TileFlags.EMPTY;
+                if (wallRow || wallColumn) {
+                    boolean doorway = wallRow != wallColumn && (wallRow ? x : y) % ROOM_SIZE == ROOM_SIZE / 2;
+                    if (doorway) {
+                        tile = random.nextInt(8) == 0 ? TileFlags.LOCKED_DOOR : TileFlags.DOOR;
+                    } else {
+                        tile = TileFlags.FIRST_WALL + random.nextInt(TileFlags.LAST_WALL);
+                    }
+                } else if (random.nextInt(256) == 0) {
+                    tile = TileFlags.KEY + random.nextInt(3);
+                }
+                tiles[y * size + x] = (byte) tile;
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.wolfenstein.games.objects;
+
+/**
+ * Notified when a map tile changes in a way that can affect sight or movement.
+ */
+@FunctionalInterface
+public interface TileChangeListener {
+    void tileChanged(int x, int y);
+}
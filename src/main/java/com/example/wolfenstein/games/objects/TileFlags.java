@@ -0,0 +1,54 @@
+package com.example.wolfenstein.games.objects;
+
+/**
+ * Tile ids and the static id -> classification bitmask table used by {@link Map}.
+ * Classifying a tile is one table load and one mask instead of a chain of id comparisons.
+ */
+public final class TileFlags {
+    public static final int EMPTY = 0;
+    public static final int FIRST_WALL = 1;
+    public static final int LAST_WALL = 16;
+    public static final int ENEMY = 17;
+    public static final int DOOR = 18;
+    public static final int EXIT = 19;
+    public static final int LOCKED_DOOR = 20;
+    public static final int KEY = 21;
+    public static final int HEALTH = 22;
+    public static final int AMMO = 23;
+    public static final int CHEST = 24;
+
+    // Blocks movement and stops rays
+    public static final int SOLID = 1;
+    public static final int DOOR_FLAG = 1 << 1;
+    public static final int LOCKED = 1 << 2;
+    public static final int PICKUP = 1 << 3;
+    public static final int EXIT_FLAG = 1 << 4;
+    // Has a wall texture in the atlas
+    public static final int TEXTURED = 1 << 5;
+    public static final int BLOCKS_SIGHT = 1 << 6;
+
+    private static final int[] FLAGS = new int[256];
+
+    static {
+        for (int id = FIRST_WALL; id <= LAST_WALL; id++) {
+            FLAGS[id] = SOLID | TEXTURED | BLOCKS_SIGHT;
+        }
+        // Doors do not block movement or sight, as before the flag table
+        FLAGS[DOOR] = DOOR_FLAG;
+        FLAGS[LOCKED_DOOR] = LOCKED;
+        FLAGS[EXIT] = EXIT_FLAG;
+        FLAGS[KEY] = PICKUP;
+        FLAGS[HEALTH] = PICKUP;
+        FLAGS[AMMO] = PICKUP;
+    }
+
+    private TileFlags() {
+    }
+
+    /**
+     * Flags for a tile id as stored in the map (0-255).
+     */
+    public static int of(int tile) {
+        return FLAGS[tile & 0xFF];
+    }
+}
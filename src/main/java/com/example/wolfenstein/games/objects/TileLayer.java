@@ -0,0 +1,15 @@
+package com.example.wolfenstein.games.objects;
+
+/**
+ * Storage for a map's tile ids. Coordinates are always inside the map; {@link Map} does the
+ * bounds checks and treats everything outside as wall.
+ */
+public interface TileLayer {
+    int getWidth();
+
+    int getHeight();
+
+    int get(int x, int y);
+
+    void set(int x, int y, int tile);
+}
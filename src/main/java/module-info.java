@@ -7,6 +7,8 @@ module com.example.wolfenstein {
     requires org.kordamp.bootstrapfx.core;
     requires static lombok;
     requires java.logging;
+    requires java.desktop;
+    requires jdk.jfr;
 
     opens com.example.wolfenstein to javafx.fxml;
     exports com.example.wolfenstein;
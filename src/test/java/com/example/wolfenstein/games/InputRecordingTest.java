@@ -0,0 +1,106 @@
+package com.example.wolfenstein.games;
+
+import com.example.wolfenstein.games.objects.Map;
+import com.example.wolfenstein.games.objects.Player;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InputRecordingTest {
+    private static final int TICKS = 2000;
+    private static final long SEED = 42;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replayEndsInTheRecordedState() throws IOException {
+        GameWorld world = newWorld(GameWorld.DEFAULT_TICK_RATE, SEED);
+        long startHash = world.stateHash();
+        InputRecorder recorder = new InputRecorder(world);
+        ScriptedInput script = new ScriptedInput(SEED);
+        for (int i = 0; i < TICKS && !world.isGameOver(); i++) {
+            int buttons = script.next();
+            recorder.record(buttons);
+            world.tick(buttons);
+        }
+        Path file = dir.resolve("session.wrec");
+        recorder.finish(world).write(file);
+
+        InputRecording recording = InputRecording.read(file);
+        GameWorld replay = newWorld(recording.getTickRate(), recording.getSeed());
+        assertEquals(recording.getMapHash(), replay.getMap().contentHash());
+        assertEquals(recorder.getTickCount(), recording.getTickCount());
+        for (int tick = 0; tick < recording.getTickCount(); tick++) {
+            replay.tick(recording.getButtons(tick));
+        }
+
+        assertNotEquals(startHash, world.stateHash());
+        assertEquals(world.stateHash(), recording.getFinalStateHash());
+        assertEquals(recording.getFinalStateHash(), replay.stateHash());
+    }
+
+    @Test
+    void readRejectsARunLongerThanTheSession() throws IOException {
+        Path file = writeSample();
+        byte[] bytes = Files.readAllBytes(file);
+        // Claim fewer ticks than the runs hold
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(32, 5);
+        Files.write(file, bytes);
+
+        IOException e = assertThrows(IOException.class, () -> InputRecording.read(file));
+        assertTrue(e.getMessage().contains("bad run length"), e.getMessage());
+    }
+
+    @Test
+    void readRejectsATruncatedFile() throws IOException {
+        Path file = writeSample();
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+
+        IOException e = assertThrows(IOException.class, () -> InputRecording.read(file));
+        assertTrue(e.getMessage().contains("truncated"), e.getMessage());
+    }
+
+    @Test
+    void readRejectsMissingTicks() throws IOException {
+        Path file = writeSample();
+        byte[] bytes = Files.readAllBytes(file);
+        // Claim more ticks than the runs hold
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(32, 100);
+        Files.write(file, bytes);
+
+        IOException e = assertThrows(IOException.class, () -> InputRecording.read(file));
+        assertTrue(e.getMessage().contains("has input for 30 of 100 ticks"), e.getMessage());
+    }
+
+    /**
+     * 30 ticks in three runs of ten.
+     */
+    private Path writeSample() throws IOException {
+        byte[] buttons = new byte[30];
+        Arrays.fill(buttons, 10, 20, (byte) InputAction.FIRE.mask());
+        Arrays.fill(buttons, 20, 30, (byte) InputAction.FORWARD.mask());
+        Path file = dir.resolve("sample.wrec");
+        new InputRecording(GameWorld.DEFAULT_TICK_RATE, SEED, 0, 0, buttons).write(file);
+        return file;
+    }
+
+    private static GameWorld newWorld(double tickRate, long seed) {
+        Map map = new Map();
+        GameWorld world = new GameWorld(map, new Player(map.getPlayerStartX(), map.getPlayerStartY()), tickRate, seed);
+        world.setMessagesEnabled(false);
+        return world;
+    }
+}